@@ -0,0 +1,130 @@
+package mesures;
+
+import java.util.concurrent.TimeUnit;
+
+import org.chocosolver.solver.Model;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Construction (variables et contraintes postées) et résolution, mesurées
+ * séparément, des modèles écrits à la main : le zèbre en intension
+ * (allDifferent, arithm, distance) et en extension (tables), et les n reines
+ * de ReinesIntension pour les valeurs de n de son main.
+ *
+ * Un modèle ne se résout qu'une fois et une résolution dure quelques
+ * microsecondes : trop peu pour un @Setup(Level.Invocation). Chaque itération
+ * de résolution est donc un seul appel (SingleShotTime) qui résout LOT modèles
+ * construits avant elle, hors mesure ; le score est rapporté à une résolution.
+ * Les constructions ont leur propre état, sans modèle préparé.
+ */
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(2)
+public class ModelesBench {
+
+	static final int LOT = 500;
+
+	@State(Scope.Benchmark)
+	public static class Zebre {
+		@Param({"intension", "extension"})
+		public String encodage;
+
+		boolean extension() {
+			return encodage.equals("extension");
+		}
+	}
+
+	@State(Scope.Benchmark)
+	public static class Reines {
+		// les valeurs de ReinesIntension.VALS_POSSIBLES
+		@Param({"1", "2", "3", "4", "8", "12", "16"})
+		public int n;
+	}
+
+	/** Les LOT modèles résolus par une itération. */
+	public abstract static class Lot {
+		Model modeles[];
+
+		abstract Model construire() throws Throwable;
+
+		@Setup(Level.Iteration)
+		public void remplir() throws Throwable {
+			modeles = new Model[LOT];
+			for(int i=0;i<LOT;i++)
+				modeles[i] = construire();
+		}
+
+		void resoudre(Blackhole bh) {
+			for(Model model : modeles)
+				bh.consume(model.getSolver().solve());
+		}
+	}
+
+	@State(Scope.Thread)
+	public static class ZebresConstruits extends Lot {
+		@Param({"intension", "extension"})
+		public String encodage;
+
+		@Override
+		Model construire() throws Throwable {
+			return Tps.zebre(encodage.equals("extension"));
+		}
+	}
+
+	@State(Scope.Thread)
+	public static class ReinesConstruites extends Lot {
+		@Param({"1", "2", "3", "4", "8", "12", "16"})
+		public int n;
+
+		@Override
+		Model construire() throws Throwable {
+			return Tps.reines(n);
+		}
+	}
+
+	@Benchmark
+	@BenchmarkMode(Mode.AverageTime)
+	@Warmup(iterations = 5, time = 1)
+	@Measurement(iterations = 5, time = 1)
+	public Model zebreConstruction(Zebre z) throws Throwable {
+		return Tps.zebre(z.extension());
+	}
+
+	@Benchmark
+	@BenchmarkMode(Mode.SingleShotTime)
+	@OperationsPerInvocation(LOT)
+	@Warmup(iterations = 20)
+	@Measurement(iterations = 20)
+	public void zebreResolution(ZebresConstruits z, Blackhole bh) {
+		z.resoudre(bh);
+	}
+
+	@Benchmark
+	@BenchmarkMode(Mode.AverageTime)
+	@Warmup(iterations = 5, time = 1)
+	@Measurement(iterations = 5, time = 1)
+	public Model reinesConstruction(Reines r) throws Throwable {
+		return Tps.reines(r.n);
+	}
+
+	@Benchmark
+	@BenchmarkMode(Mode.SingleShotTime)
+	@OperationsPerInvocation(LOT)
+	@Warmup(iterations = 20)
+	@Measurement(iterations = 20)
+	public void reinesResolution(ReinesConstruites r, Blackhole bh) {
+		r.resoudre(bh);
+	}
+}
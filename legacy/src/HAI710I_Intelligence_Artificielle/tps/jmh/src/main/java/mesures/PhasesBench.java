@@ -0,0 +1,119 @@
+package mesures;
+
+import java.io.BufferedReader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.chocosolver.solver.Model;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Les trois phases d'Expe sur un fichier bench, mesurées séparément :
+ *   lireReseau    la lecture d'origine (Expe.lireReseau) qui construit aussi le modèle
+ *   lecture       SourceReseaux.lire : du texte aux tableaux de Reseau
+ *   construction  Reseau.construireModele : les tables postées dans un Model
+ *   resolution    solve() sur des modèles construits hors mesure
+ * Les deux lectures partent d'un texte déjà en mémoire : le texte de lireReseau
+ * est chargé en chaîne, et la SourceReseaux de lecture est ouverte (index
+ * vérifié, fichier projeté) une fois pour toutes hors mesure, ses pages restant
+ * dans le cache du système. On ne mesure donc ni le disque ni l'ouverture.
+ * Les chemins sont relatifs au dossier jmh.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class PhasesBench {
+
+	@Param({"../bench.txt", "../benchSatisf.txt", "../benchInsat.txt"})
+	public String fichier;
+
+	private String texte;
+	private AutoCloseable source;
+	private int nbReseaux;
+	private List<Object> reseaux;
+
+	static final int LOT = 50;
+
+	/**
+	 * Un modèle ne se résout qu'une fois, et résoudre un fichier prend moins
+	 * d'une milliseconde : trop peu pour un @Setup(Level.Invocation). On
+	 * construit avant chaque itération LOT fois les modèles du fichier, que
+	 * resolution résout en un seul appel (SingleShotTime).
+	 */
+	@State(Scope.Thread)
+	public static class Modeles {
+		List<Model> modeles;
+
+		@Setup(Level.Iteration)
+		public void construire(PhasesBench bench) throws Throwable {
+			modeles = new ArrayList<>(LOT * bench.nbReseaux);
+			for(int i=0;i<LOT;i++)
+				for(Object r : bench.reseaux)
+					modeles.add(Tps.modele(r));
+		}
+	}
+
+	@Setup(Level.Trial)
+	public void charger() throws Throwable {
+		texte = new String(Files.readAllBytes(Paths.get(fichier)), StandardCharsets.UTF_8);
+		source = Tps.ouvrir(fichier);
+		reseaux = Tps.lireReseaux(source);
+		nbReseaux = reseaux.size();
+	}
+
+	@TearDown(Level.Trial)
+	public void fermer() throws Exception {
+		source.close();
+	}
+
+	@Benchmark
+	public void lireReseau(Blackhole bh) throws Throwable {
+		BufferedReader in = new BufferedReader(new StringReader(texte));
+		for(int i=0;i<nbReseaux;i++)
+			bh.consume(Tps.lireReseau(in));
+	}
+
+	@Benchmark
+	public List<Object> lecture() throws Throwable {
+		return Tps.lireReseaux(source);
+	}
+
+	@Benchmark
+	public void construction(Blackhole bh) throws Throwable {
+		for(Object r : reseaux)
+			bh.consume(Tps.modele(r));
+	}
+
+	/** Temps de résolution de tous les réseaux du fichier. */
+	@Benchmark
+	@BenchmarkMode(Mode.SingleShotTime)
+	@OperationsPerInvocation(LOT)
+	@Warmup(iterations = 20)
+	@Measurement(iterations = 20)
+	public void resolution(Modeles m, Blackhole bh) {
+		for(Model model : m.modeles)
+			bh.consume(model.getSolver().solve());
+	}
+}
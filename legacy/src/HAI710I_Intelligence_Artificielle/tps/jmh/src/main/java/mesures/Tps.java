@@ -0,0 +1,78 @@
+package mesures;
+
+import java.io.BufferedReader;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.chocosolver.solver.Model;
+
+/**
+ * Accès aux classes des tps, qui sont dans le paquetage par défaut : JMH
+ * n'accepte pas de benchmark dans ce paquetage et un paquetage nommé ne peut
+ * pas les importer. Les méthodes utiles sont retrouvées une fois pour toutes
+ * sous forme de MethodHandle.
+ */
+final class Tps {
+
+	private static final MethodHandle OUVRIR, NB_RESEAUX, LIRE, MODELE, LIRE_RESEAU, ZEBRE_INTENSION, ZEBRE_EXTENSION, REINES;
+
+	static {
+		try {
+			MethodHandles.Lookup lookup = MethodHandles.lookup();
+			Class<?> source = Class.forName("SourceReseaux");
+			Class<?> reseau = Class.forName("Reseau");
+			Class<?> expe = Class.forName("Expe");
+			OUVRIR = lookup.findStatic(source, "ouvrir", MethodType.methodType(source, String.class));
+			NB_RESEAUX = lookup.findVirtual(source, "nbReseaux", MethodType.methodType(int.class));
+			LIRE = lookup.findVirtual(source, "lire", MethodType.methodType(reseau, int.class));
+			MODELE = lookup.findVirtual(reseau, "construireModele", MethodType.methodType(Model.class));
+			// lireReseau est privée : c'est la lecture d'origine de Expe
+			java.lang.reflect.Method lireReseau = expe.getDeclaredMethod("lireReseau", BufferedReader.class);
+			lireReseau.setAccessible(true);
+			LIRE_RESEAU = lookup.unreflect(lireReseau);
+			ZEBRE_INTENSION = lookup.findStatic(Class.forName("ZebreIntension"), "construireModele", MethodType.methodType(Model.class));
+			ZEBRE_EXTENSION = lookup.findStatic(Class.forName("ZebreExtension"), "construireModele", MethodType.methodType(Model.class));
+			REINES = lookup.findStatic(Class.forName("ReinesIntension"), "construireModele", MethodType.methodType(Model.class, int.class));
+		} catch(ReflectiveOperationException e) {
+			throw new ExceptionInInitializerError(e);
+		}
+	}
+
+	private Tps() {
+	}
+
+	/** SourceReseaux.ouvrir(fichier) */
+	static AutoCloseable ouvrir(String fichier) throws Throwable {
+		return (AutoCloseable) OUVRIR.invoke(fichier);
+	}
+
+	/** Les réseaux (Reseau) d'une source déjà ouverte. */
+	static List<Object> lireReseaux(AutoCloseable source) throws Throwable {
+		int nb = (int) NB_RESEAUX.invoke(source);
+		List<Object> reseaux = new ArrayList<>(nb);
+		for(int i=0;i<nb;i++)
+			reseaux.add(LIRE.invoke(source, i));
+		return reseaux;
+	}
+
+	/** Reseau.construireModele() */
+	static Model modele(Object reseau) throws Throwable {
+		return (Model) MODELE.invoke(reseau);
+	}
+
+	/** Expe.lireReseau(BufferedReader) : lecture et construction du modèle d'un réseau. */
+	static Model lireReseau(BufferedReader in) throws Throwable {
+		return (Model) LIRE_RESEAU.invoke(in);
+	}
+
+	static Model zebre(boolean extension) throws Throwable {
+		return (Model) (extension ? ZEBRE_EXTENSION : ZEBRE_INTENSION).invoke();
+	}
+
+	static Model reines(int n) throws Throwable {
+		return (Model) REINES.invoke(n);
+	}
+}
@@ -0,0 +1,140 @@
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Callable;
+
+import org.chocosolver.util.tools.TimeUtils;
+
+/**
+ * Balayage de la transition de phase sur des réseaux aléatoires urbcsp générés
+ * en mémoire (GenerateurURBCSP).
+ *
+ * Pour chaque point (n, d, densité, dureté) de la grille on résout un nombre
+ * fixé d'instances ; toutes les instances de tous les points sont réparties
+ * ensemble sur les threads de l'exécuteur. La densité est la proportion des
+ * n(n-1)/2 contraintes possibles, la dureté la proportion des d*d couples
+ * interdits (les couples générés sont les tuples autorisés, comme dans Expe).
+ * On affiche pour chaque point la proportion de réseaux satisfiables, le temps
+ * et le nombre de noeuds médians ; la dureté varie en dernier, ce qui donne
+ * directement les courbes de transition.
+ *
+ * Les plages s'écrivent "debut:fin:pas" ou "v1,v2,...".
+ *
+ * usage: Balayage [-n 20] [-d 10] [-densite 0.2] [-durete 0.1:0.9:0.05]
+ *                 [-instances 50] [-moteur mac] [-strategie defaut] [-limite 10s]
+ *                 [-threads 4] [-graine -1] [-sortie balayage.csv] [-resultats mesures.jsonl]
+ */
+public class Balayage {
+
+	/** "debut:fin:pas", "v1,v2,..." ou une seule valeur. */
+	static double[] lirePlage(String plage) {
+		if(plage.contains(":")) {
+			String p[] = plage.split(":");
+			double debut = Double.parseDouble(p[0]), fin = Double.parseDouble(p[1]);
+			double pas = p.length > 2 ? Double.parseDouble(p[2]) : 1;
+			int nb = (int) Math.floor((fin - debut) / pas + 1e-9) + 1;
+			double valeurs[] = new double[nb];
+			for(int i=0;i<nb;i++)
+				valeurs[i] = debut + i*pas;
+			return valeurs;
+		}
+		return Arrays.stream(plage.split(",")).mapToDouble(s -> Double.parseDouble(s.trim())).toArray();
+	}
+
+	public static void main(String[] args) throws Exception {
+		double ns[] = {20}, ds[] = {10}, densites[] = {0.2};
+		double durete[] = lirePlage("0.1:0.9:0.05");
+		int nbInstances = 50;
+		String nomMoteur = "mac";
+		String strategie = "defaut";
+		String limite = "10s";
+		int nbThreads = Runtime.getRuntime().availableProcessors();
+		long graine = -1;
+		String sortie = null;
+		String journalResultats = null;	// un enregistrement par instance (JournalResultats)
+		for(int a=0;a<args.length;a++) {
+			switch(args[a]) {
+				case "-n" : ns = lirePlage(args[++a]); break;
+				case "-d" : ds = lirePlage(args[++a]); break;
+				case "-densite" : densites = lirePlage(args[++a]); break;
+				case "-durete" : durete = lirePlage(args[++a]); break;
+				case "-instances" : nbInstances = Integer.parseInt(args[++a]); break;
+				case "-moteur" : nomMoteur = args[++a]; break;
+				case "-strategie" : strategie = args[++a]; break;
+				case "-limite" : limite = args[++a]; break;
+				case "-threads" : nbThreads = Integer.parseInt(args[++a]); break;
+				case "-graine" : graine = Long.parseLong(args[++a]); break;
+				case "-sortie" : sortie = args[++a]; break;
+				case "-resultats" : journalResultats = args[++a]; break;
+				default : throw new IllegalArgumentException("Option inconnue : "+args[a]);
+			}
+		}
+		long limiteMs = TimeUtils.convertInMilliseconds(limite);
+
+		// les points de la grille, dans l'ordre d'affichage
+		List<int[]> points = new ArrayList<>();			// {n, d, c, t}
+		List<double[]> parametres = new ArrayList<>();	// {densite, durete}
+		for(double n : ns)
+			for(double d : ds)
+				for(double densite : densites)
+					for(double p2 : durete) {
+						int vn = (int) n, vd = (int) d;
+						int c = (int) Math.round(densite * vn*(vn-1)/2);
+						int t = (int) Math.round((1 - p2) * vd*vd);
+						t = Math.max(1, Math.min(vd*vd-1, t));
+						points.add(new int[]{vn, vd, c, t});
+						parametres.add(new double[]{densite, p2});
+					}
+
+		try(JournalResultats journal = journalResultats != null ? new JournalResultats(journalResultats) : null;
+				ExecuteurParallele executeur = new ExecuteurParallele(nbThreads, journal);
+				Moteur moteur = Expe.creerMoteur(nomMoteur, strategie);
+				PrintWriter csv = sortie != null ? new PrintWriter(sortie) : null) {
+			List<Callable<Resultat>> taches = new ArrayList<>();
+			for(int[] p : points) {
+				String description = GenerateurURBCSP.PREFIXE+p[0]+","+p[1]+","+p[2]+","+p[3]+","+nbInstances+","+graine;
+				GenerateurURBCSP generateur = GenerateurURBCSP.lire(description);
+				for(int i=1;i<=nbInstances;i++) {
+					int nb = i;
+					taches.add(() -> Expe.resoudre(description, generateur, nb, moteur, limiteMs, null, false));
+				}
+			}
+			System.out.printf("Balayage : %d points x %d instances sur %d threads (%s)%n", points.size(), nbInstances, nbThreads, moteur.nom());
+			long t0 = System.nanoTime();
+			List<Resultat> resultats = executeur.executer(taches);
+			long duree = System.nanoTime() - t0;
+
+			String entete = "n;d;densite;durete;contraintes;tuples;satisfiables;inconnus;temps_median_ms;noeuds_median";
+			System.out.printf("%5s %5s %8s %8s %6s %6s %8s %8s %12s %12s%n", "n", "d", "densite", "durete",
+					"C", "T", "sat", "inconnu", "ms (med)", "noeuds (med)");
+			if(csv != null)
+				csv.println(entete);
+			for(int k=0;k<points.size();k++) {
+				int p[] = points.get(k);
+				double q[] = parametres.get(k);
+				int sat = 0, inconnus = 0;
+				long temps[] = new long[nbInstances], noeuds[] = new long[nbInstances];
+				for(int i=0;i<nbInstances;i++) {
+					Resultat res = resultats.get(k*nbInstances + i);
+					if(res.statut == Resultat.Statut.SATISFIABLE)
+						sat++;
+					else if(res.statut == Resultat.Statut.INCONNU)
+						inconnus++;
+					temps[i] = res.tempsResolution;
+					noeuds[i] = res.noeuds;
+				}
+				double fraction = (double) sat / nbInstances;
+				double ms = Chronometrage.mediane(temps) / 1e6;
+				double nds = Chronometrage.mediane(noeuds);
+				System.out.printf("%5d %5d %8.3f %8.3f %6d %6d %8.3f %8d %12.3f %12.1f%n", p[0], p[1], q[0], q[1],
+						p[2], p[3], fraction, inconnus, ms, nds);
+				if(csv != null)
+					csv.printf(Locale.ROOT, "%d;%d;%.4f;%.4f;%d;%d;%.4f;%d;%.4f;%.1f%n", p[0], p[1], q[0], q[1],
+							p[2], p[3], fraction, inconnus, ms, nds);
+			}
+			System.out.printf("Durée totale : %.1f s%n", duree/1e9);
+		}
+	}
+}
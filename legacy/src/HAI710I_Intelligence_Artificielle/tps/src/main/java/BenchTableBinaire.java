@@ -0,0 +1,75 @@
+import java.util.ArrayList;
+import java.util.List;
+
+import org.chocosolver.solver.Model;
+import org.chocosolver.solver.Solver;
+
+/**
+ * Compare model.table(...) et PropTableBinaire sur les réseaux des fichiers
+ * bench avec la même stratégie de recherche, en noeuds par seconde. Le filtrage
+ * est le même (arc-cohérence) mais l'ordre de propagation change les poids de
+ * dom/wdeg, d'où parfois un nombre de noeuds différent.
+ *
+ * usage: BenchTableBinaire [-repetitions 10] [-strategie domwdeg] [fichiers...]
+ */
+public class BenchTableBinaire {
+
+	private static final int ECHAUFFEMENT = 3;
+
+	/** Résout le réseau et rend {noeuds, nanosecondes}. */
+	private static long[] mesurer(Reseau reseau, boolean bitset, StrategieRecherche strategie) {
+		reseau.tablesBitset = bitset;
+		Model model = reseau.construireModele();
+		strategie.appliquer(model);
+		Solver solver = model.getSolver();
+		long t0 = System.nanoTime();
+		solver.solve();
+		return new long[]{solver.getNodeCount(), System.nanoTime() - t0};
+	}
+
+	public static void main(String[] args) throws Exception {
+		int repetitions = 10;
+		StrategieRecherche strategie = StrategieRecherche.lire("defaut");
+		List<String> fichiers = new ArrayList<>();
+		for(int a=0;a<args.length;a++) {
+			if(args[a].equals("-repetitions"))
+				repetitions = Integer.parseInt(args[++a]);
+			else if(args[a].equals("-strategie"))
+				strategie = StrategieRecherche.lire(args[++a]);
+			else
+				fichiers.add(args[a]);
+		}
+		if(fichiers.isEmpty()) {
+			fichiers.add("benchSatisf.txt");
+			fichiers.add("benchInsat.txt");
+		}
+
+		System.out.printf("%-18s %4s %10s %12s %12s %14s %14s %8s%n", "fichier", "num", "noeuds",
+				"table (ms)", "bitset (ms)", "table (n/s)", "bitset (n/s)", "gain");
+		for(String ficName : fichiers) {
+			try(SourceReseaux source = SourceReseaux.ouvrir(ficName)) {
+				for(int i=0;i<source.nbReseaux();i++) {
+					Reseau reseau = source.lire(i);
+					for(int e=0;e<ECHAUFFEMENT;e++) {
+						mesurer(reseau, false, strategie);
+						mesurer(reseau, true, strategie);
+					}
+					long noeudsTable = 0, tempsTable = 0, noeudsBitset = 0, tempsBitset = 0;
+					for(int r=0;r<repetitions;r++) {
+						long m[] = mesurer(reseau, false, strategie);
+						noeudsTable += m[0];
+						tempsTable += m[1];
+						m = mesurer(reseau, true, strategie);
+						noeudsBitset += m[0];
+						tempsBitset += m[1];
+					}
+					double debitTable = noeudsTable / (tempsTable / 1e9);
+					double debitBitset = noeudsBitset / (tempsBitset / 1e9);
+					System.out.printf("%-18s %4d %10d %12.3f %12.3f %14.0f %14.0f %7.2fx%s%n", ficName, i+1, noeudsTable/repetitions,
+							tempsTable/1e6/repetitions, tempsBitset/1e6/repetitions, debitTable, debitBitset, debitBitset/Math.max(debitTable, 1e-9),
+							noeudsTable == noeudsBitset ? "" : "  (noeuds différents : "+noeudsBitset/repetitions+")");
+				}
+			}
+		}
+	}
+}
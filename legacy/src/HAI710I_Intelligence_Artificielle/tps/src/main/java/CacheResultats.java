@@ -0,0 +1,135 @@
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Cache persistant des résolutions, adressé par le contenu : la clé est le
+ * SHA-256 des tableaux du Reseau (donc indépendante du fichier, de son format
+ * et de la position du réseau) suivi de la configuration du solveur
+ * (Moteur.configuration(), limite de temps, propagateur de tables).
+ *
+ * On garde le statut, la solution et les statistiques ; les réseaux non résolus
+ * dans la limite de temps sont gardés aussi, puisque la limite fait partie de
+ * la clé. Le fichier est un journal texte (une ligne par résolution, la
+ * dernière l'emporte) relu entièrement à l'ouverture.
+ */
+public class CacheResultats implements AutoCloseable {
+
+	private final ConcurrentHashMap<String, String[]> entrees = new ConcurrentHashMap<>();
+	private final Writer journal;
+	private final AtomicInteger nbTrouves = new AtomicInteger();
+
+	public CacheResultats(String nomFichier) throws IOException {
+		File fichier = new File(nomFichier);
+		if(fichier.exists()) {
+			try(BufferedReader in = new BufferedReader(new InputStreamReader(new FileInputStream(fichier), StandardCharsets.UTF_8))) {
+				String ligne;
+				while((ligne = in.readLine()) != null) {
+					String champs[] = ligne.split("\t", -1);
+					// une ligne tronquée par un arrêt brutal est ignorée
+					if(champs.length == 9)
+						entrees.put(champs[0], champs);
+				}
+			}
+		}
+		journal = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(fichier, true), StandardCharsets.UTF_8));
+	}
+
+	/** SHA-256 du réseau, en hexadécimal. */
+	static String empreinte(Reseau r) {
+		MessageDigest sha;
+		try {
+			sha = MessageDigest.getInstance("SHA-256");
+		} catch(NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+		ByteBuffer tampon = ByteBuffer.allocate(1 << 14);
+		tampon.putInt(r.nbVariables).putInt(r.tailleDom).putInt(r.nbContraintes);
+		for(int[] tableau : new int[][]{r.x, r.y, r.debut, r.tuples}) {
+			for(int v : tableau) {
+				if(!tampon.hasRemaining()) {
+					tampon.flip();
+					sha.update(tampon);
+					tampon.clear();
+				}
+				tampon.putInt(v);
+			}
+		}
+		tampon.flip();
+		sha.update(tampon);
+		StringBuilder hex = new StringBuilder(64);
+		for(byte b : sha.digest())
+			hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+		return hex.toString();
+	}
+
+	static String cle(Reseau reseau, String configuration) {
+		return empreinte(reseau) + "/" + configuration;
+	}
+
+	/** Complète res depuis le cache ; faux si la clé est absente. */
+	public boolean chercher(String cle, Resultat res) {
+		String c[] = entrees.get(cle);
+		if(c == null)
+			return false;
+		res.statut = Resultat.Statut.valueOf(c[1]);
+		res.tempsConstruction = Long.parseLong(c[2]);
+		res.tempsResolution = Long.parseLong(c[3]);
+		res.noeuds = Long.parseLong(c[4]);
+		res.retours = Long.parseLong(c[5]);
+		res.echecs = Long.parseLong(c[6]);
+		res.strategie = c[7].isEmpty() ? null : c[7];
+		if(!c[8].isEmpty()) {
+			String valeurs[] = c[8].split(",");
+			res.solution = new int[valeurs.length];
+			for(int i=0;i<valeurs.length;i++)
+				res.solution[i] = Integer.parseInt(valeurs[i]);
+		}
+		res.depuisCache = true;
+		nbTrouves.incrementAndGet();
+		return true;
+	}
+
+	public void enregistrer(String cle, Resultat res) throws IOException {
+		StringBuilder solution = new StringBuilder();
+		if(res.solution != null)
+			for(int i=0;i<res.solution.length;i++)
+				solution.append(i == 0 ? "" : ",").append(res.solution[i]);
+		String c[] = {cle, res.statut.name(), Long.toString(res.tempsConstruction), Long.toString(res.tempsResolution),
+				Long.toString(res.noeuds), Long.toString(res.retours), Long.toString(res.echecs),
+				res.strategie == null ? "" : res.strategie, solution.toString()};
+		entrees.put(cle, c);
+		String ligne = String.join("\t", c) + "\n";
+		synchronized(journal) {
+			journal.write(ligne);
+			journal.flush();
+		}
+	}
+
+	public int nbTrouves() {
+		return nbTrouves.get();
+	}
+
+	public int taille() {
+		return entrees.size();
+	}
+
+	@Override
+	public void close() throws IOException {
+		synchronized(journal) {
+			journal.close();
+		}
+	}
+}
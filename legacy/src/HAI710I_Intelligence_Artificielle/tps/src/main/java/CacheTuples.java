@@ -0,0 +1,123 @@
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.chocosolver.solver.constraints.extension.Tuples;
+
+/**
+ * Cache des relations binaires : deux contraintes qui portent le même ensemble
+ * de tuples partagent le même objet Tuples (et les tableaux qu'il contient).
+ * La clé est l'ensemble des tuples trié, ce qui ne dépend ni de l'ordre
+ * d'apparition ni des doublons dans le fichier.
+ * Le cache peut être utilisé depuis plusieurs threads.
+ *
+ * Sur des réseaux aléatoires aucune relation ne se répète : garder les tuples
+ * de tout le fichier ne ferait qu'annuler la lecture en flux. Après ESSAI
+ * demandes, si moins de TAUX_MIN d'entre elles ont été partagées, le cache se
+ * vide et les demandes suivantes rendent un Tuples neuf.
+ */
+public class CacheTuples {
+
+	/** Ensemble de couples (a,b) codés par a<<32 | b, trié et sans doublon. */
+	private static final class Cle {
+		final long[] couples;
+		final boolean autorises;
+		final int hash;
+
+		Cle(long[] couples, boolean autorises) {
+			this.couples = couples;
+			this.autorises = autorises;
+			this.hash = 31*Arrays.hashCode(couples) + (autorises ? 1 : 0);
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if(!(o instanceof Cle))
+				return false;
+			Cle c = (Cle) o;
+			return hash == c.hash && autorises == c.autorises && Arrays.equals(couples, c.couples);
+		}
+	}
+
+	static final int ESSAI = 200;
+	static final double TAUX_MIN = 0.05;
+
+	private final ConcurrentHashMap<Cle, Tuples> tables = new ConcurrentHashMap<>();
+	private volatile boolean abandonne;
+	private final AtomicLong nbDemandes = new AtomicLong();
+	private final AtomicLong nbPartages = new AtomicLong();
+	private final AtomicLong octetsEconomises = new AtomicLong();
+
+	/** Les tuples d'indices debut..fin-1 du tableau aplati (comme dans Reseau). */
+	public Tuples obtenir(int[] tuples, int debut, int fin, boolean autorises) {
+		if(abandonne) {
+			nbDemandes.incrementAndGet();
+			int t[][] = new int[fin-debut][];
+			for(int i=debut;i<fin;i++)
+				t[i-debut] = new int[]{tuples[2*i], tuples[2*i+1]};
+			return new Tuples(t, autorises);
+		}
+		long couples[] = new long[fin-debut];
+		for(int t=debut;t<fin;t++)
+			couples[t-debut] = ((long) tuples[2*t] << 32) | (tuples[2*t+1] & 0xFFFFFFFFL);
+		return obtenir(couples, autorises);
+	}
+
+	private Tuples obtenir(long[] couples, boolean autorises) {
+		if(nbDemandes.incrementAndGet() == ESSAI && nbPartages.get() < TAUX_MIN*ESSAI) {
+			abandonne = true;
+			tables.clear();
+		}
+		Arrays.sort(couples);
+		int nb = 0;
+		for(int i=0;i<couples.length;i++)
+			if(i == 0 || couples[i] != couples[i-1])
+				couples[nb++] = couples[i];
+		Cle cle = new Cle(nb == couples.length ? couples : Arrays.copyOf(couples, nb), autorises);
+		Tuples existant = tables.get(cle);
+		if(existant == null) {
+			int t[][] = new int[nb][];
+			for(int i=0;i<nb;i++)
+				t[i] = new int[]{(int) (cle.couples[i] >> 32), (int) cle.couples[i]};
+			existant = tables.putIfAbsent(cle, new Tuples(t, autorises));
+			if(existant == null)
+				return tables.get(cle);
+		}
+		nbPartages.incrementAndGet();
+		octetsEconomises.addAndGet(estimerOctets(nb));
+		return existant;
+	}
+
+	/**
+	 * Estimation de la place d'un objet Tuples de n couples : l'objet et sa liste
+	 * (environ 72 octets) puis, par couple, un int[2] (24 octets) et sa référence (4).
+	 */
+	static long estimerOctets(int n) {
+		return 72 + 28L*n;
+	}
+
+	public long nbDemandes() {
+		return nbDemandes.get();
+	}
+
+	public long nbPartages() {
+		return nbPartages.get();
+	}
+
+	public long octetsEconomises() {
+		return octetsEconomises.get();
+	}
+
+	public String bilan() {
+		if(abandonne)
+			return String.format("%d contraintes, %d relations partagées sur les %d premières : cache abandonné",
+					nbDemandes(), nbPartages(), ESSAI);
+		return String.format("%d relations distinctes pour %d contraintes, %d partagées, environ %.1f Ko économisés",
+				tables.size(), nbDemandes(), nbPartages(), octetsEconomises()/1024.0);
+	}
+}
@@ -0,0 +1,41 @@
+import java.util.Arrays;
+
+/**
+ * Outils communs des programmes de mesure (ComparaisonZebre, ReecritureTables,
+ * Balayage) : médiane d'une série et boucle de mesure qui fait d'abord des
+ * tours d'échauffement pour le JIT, puis alterne l'ordre des variantes d'une
+ * répétition à l'autre pour qu'aucune ne subisse seule une dérive de la
+ * machine (fréquence, ramasse-miettes).
+ */
+final class Chronometrage {
+
+	/** Un tour de mesure d'une variante ; repetition vaut -1 pendant l'échauffement. */
+	interface Tour {
+		void executer(int repetition);
+	}
+
+	private Chronometrage() {
+	}
+
+	/** Médiane de valeurs (moyenne des deux du milieu si leur nombre est pair). */
+	static double mediane(long[] valeurs) {
+		long tri[] = valeurs.clone();
+		Arrays.sort(tri);
+		int m = tri.length / 2;
+		return tri.length % 2 == 1 ? tri[m] : (tri[m-1] + tri[m]) / 2.0;
+	}
+
+	/**
+	 * echauffement tours de chaque variante, puis repetitions tours de mesure :
+	 * à la répétition r, les variantes passent à partir de la r-ième (modulo
+	 * leur nombre).
+	 */
+	static void alterner(int echauffement, int repetitions, Tour... variantes) {
+		for(int e=0;e<echauffement;e++)
+			for(Tour t : variantes)
+				t.executer(-1);
+		for(int r=0;r<repetitions;r++)
+			for(int i=0;i<variantes.length;i++)
+				variantes[(r + i) % variantes.length].executer(r);
+	}
+}
@@ -0,0 +1,199 @@
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Supplier;
+
+import org.chocosolver.solver.Model;
+import org.chocosolver.solver.Solver;
+
+/**
+ * Compare les deux codages du zèbre : ZebreIntension (allDifferent, arithm,
+ * distance) et ZebreExtension (tables binaires), puis les mêmes codages des
+ * énigmes générées par Enigme pour des tailles croissantes.
+ *
+ * Pour chaque énigme et chaque codage :
+ *   construction  temps de construireModele (médiane)
+ *   Ko            mémoire d'un modèle construit (LOT modèles gardés, tas après gc)
+ *   1re           temps, noeuds et points fixes de propagation jusqu'à la première solution
+ *   toutes        la même chose jusqu'à l'énumération de toutes les solutions
+ * Les points fixes (getFixpointCount) comptent les passages de Choco dans sa
+ * boucle de propagation, pas les appels de propagateurs : le PropagationEngine
+ * de Choco 4.10 appelle ceux-ci sans point d'observation.
+ * Les temps sont des médianes sur -repetitions, après -echauffement tours
+ * complets pour le JIT ; les deux codages alternent pour ne pas subir seuls une
+ * dérive de la machine. Une ligne ext/int donne les rapports.
+ *
+ * -sortie ajoute les lignes au fichier CSV (avec la date), pour suivre les
+ * mesures d'une version à l'autre.
+ *
+ * usage : ComparaisonZebre [-repetitions 20] [-echauffement 10] [-tailles 6x10,8x20,10x30]
+ *                          [-graine 1] [-sortie comparaison.csv]
+ */
+public class ComparaisonZebre {
+
+	private static final int LOT = 20;
+
+	/** Les mesures d'un codage sur une énigme. */
+	private static final class Mesure {
+		final String enigme, codage;
+		int contraintes;
+		long octets;
+		long[] construction, premiere, toutes;		// nanosecondes, une case par répétition
+		long noeudsPremiere, pointsFixesPremiere, noeudsToutes, pointsFixesToutes, solutions;
+
+		Mesure(String enigme, String codage, int repetitions) {
+			this.enigme = enigme;
+			this.codage = codage;
+			construction = new long[repetitions];
+			premiere = new long[repetitions];
+			toutes = new long[repetitions];
+		}
+	}
+
+	/** Un tour complet : construction, première solution, puis toutes ; rangé en case r de m si m n'est pas null. */
+	private static void tour(Supplier<Model> codage, Mesure m, int r) {
+		long t0 = System.nanoTime();
+		Model model = codage.get();
+		long t1 = System.nanoTime();
+		Solver solver = model.getSolver();
+		solver.solve();
+		long t2 = System.nanoTime();
+		long noeuds = solver.getNodeCount(), pointsFixes = solver.getMeasures().getFixpointCount();
+		while(solver.solve())
+			;
+		long t3 = System.nanoTime();
+		if(m == null)
+			return;
+		m.construction[r] = t1 - t0;
+		m.premiere[r] = t2 - t1;
+		m.toutes[r] = t3 - t1;
+		m.contraintes = model.getNbCstrs();
+		m.noeudsPremiere = noeuds;
+		m.pointsFixesPremiere = pointsFixes;
+		m.noeudsToutes = solver.getNodeCount();
+		m.pointsFixesToutes = solver.getMeasures().getFixpointCount();
+		m.solutions = solver.getSolutionCount();
+	}
+
+	/** Mémoire d'un modèle : LOT modèles gardés en vie entre deux mesures du tas. */
+	private static long octets(Supplier<Model> codage, MemoryMXBean memoire) {
+		Model lot[] = new Model[LOT];
+		System.gc();
+		long avant = memoire.getHeapMemoryUsage().getUsed();
+		for(int i=0;i<LOT;i++)
+			lot[i] = codage.get();
+		System.gc();
+		long apres = memoire.getHeapMemoryUsage().getUsed();
+		return lot[LOT-1] == null ? 0 : Math.max(0, apres - avant) / LOT;
+	}
+
+	private static long mediane(long[] t) {
+		return Math.round(Chronometrage.mediane(t));
+	}
+
+	private static Mesure[] comparer(String enigme, Supplier<Model> intension, Supplier<Model> extension,
+			int repetitions, int echauffement, MemoryMXBean memoire) {
+		Mesure mi = new Mesure(enigme, "intension", repetitions), me = new Mesure(enigme, "extension", repetitions);
+		Chronometrage.alterner(echauffement, repetitions,
+				r -> tour(intension, r < 0 ? null : mi, r), r -> tour(extension, r < 0 ? null : me, r));
+		mi.octets = octets(intension, memoire);
+		me.octets = octets(extension, memoire);
+		return new Mesure[]{mi, me};
+	}
+
+	private static final String FORMAT = "%-12s %-10s %8s %12s %10s %12s %10s %12s %14s %10s %12s %10s%n";
+
+	private static void afficher(Mesure m) {
+		System.out.printf(FORMAT, m.enigme, m.codage, m.contraintes, String.format("%.1f", mediane(m.construction)/1e3),
+				String.format("%.1f", m.octets/1024.0), String.format("%.1f", mediane(m.premiere)/1e3), m.noeudsPremiere,
+				m.pointsFixesPremiere, String.format("%.1f", mediane(m.toutes)/1e3), m.noeudsToutes, m.pointsFixesToutes, m.solutions);
+	}
+
+	private static String rapport(double ext, double in) {
+		return in == 0 ? "-" : String.format("%.2fx", ext / in);
+	}
+
+	private static void afficherRapports(Mesure mi, Mesure me) {
+		System.out.printf(FORMAT, "", "ext/int", rapport(me.contraintes, mi.contraintes),
+				rapport(mediane(me.construction), mediane(mi.construction)), rapport(me.octets, mi.octets),
+				rapport(mediane(me.premiere), mediane(mi.premiere)), rapport(me.noeudsPremiere, mi.noeudsPremiere),
+				rapport(me.pointsFixesPremiere, mi.pointsFixesPremiere), rapport(mediane(me.toutes), mediane(mi.toutes)),
+				rapport(me.noeudsToutes, mi.noeudsToutes), rapport(me.pointsFixesToutes, mi.pointsFixesToutes), "");
+	}
+
+	/** Ajoute les mesures au CSV, avec l'en-tête si le fichier est nouveau. */
+	private static void enregistrer(String fichier, List<Mesure> mesures) throws IOException {
+		Path chemin = Paths.get(fichier);
+		boolean nouveau = !Files.exists(chemin);
+		String date = LocalDateTime.now().withNano(0).format(DateTimeFormatter.ISO_LOCAL_DATE_TIME);
+		try(PrintWriter sortie = new PrintWriter(Files.newBufferedWriter(chemin, StandardCharsets.UTF_8,
+				StandardOpenOption.CREATE, StandardOpenOption.APPEND))) {
+			if(nouveau)
+				sortie.println("date,enigme,codage,contraintes,construction_ns,octets,premiere_ns,noeuds_premiere,"
+						+"points_fixes_premiere,toutes_ns,noeuds_toutes,points_fixes_toutes,solutions");
+			for(Mesure m : mesures)
+				sortie.println(String.join(",", date, m.enigme, m.codage, Integer.toString(m.contraintes),
+						Long.toString(mediane(m.construction)), Long.toString(m.octets), Long.toString(mediane(m.premiere)),
+						Long.toString(m.noeudsPremiere), Long.toString(m.pointsFixesPremiere), Long.toString(mediane(m.toutes)),
+						Long.toString(m.noeudsToutes), Long.toString(m.pointsFixesToutes), Long.toString(m.solutions)));
+		}
+	}
+
+	public static void main(String[] args) throws IOException {
+		args = Trace.options(args);
+		int repetitions = 20, echauffement = 10;
+		String tailles = "6x10,8x20,10x30";
+		long graine = 1;
+		String sortie = null;
+		for(int a=0;a<args.length;a++) {
+			if(args[a].equals("-repetitions"))
+				repetitions = Integer.parseInt(args[++a]);
+			else if(args[a].equals("-echauffement"))
+				echauffement = Integer.parseInt(args[++a]);
+			else if(args[a].equals("-tailles"))
+				tailles = args[++a];
+			else if(args[a].equals("-graine"))
+				graine = Long.parseLong(args[++a]);
+			else if(args[a].equals("-sortie"))
+				sortie = args[++a];
+		}
+
+		MemoryMXBean memoire = ManagementFactory.getMemoryMXBean();
+		List<Mesure> mesures = new ArrayList<>();
+		System.out.printf(FORMAT, "enigme", "codage", "cstrs", "constr. us", "Ko", "1re us", "noeuds", "pts fixes",
+				"toutes us", "noeuds", "pts fixes", "solutions");
+		Mesure zebre[] = comparer("zebre", ZebreIntension::construireModele, ZebreExtension::construireModele,
+				repetitions, echauffement, memoire);
+		afficher(zebre[0]);
+		afficher(zebre[1]);
+		afficherRapports(zebre[0], zebre[1]);
+		mesures.addAll(Arrays.asList(zebre));
+		for(String taille : tailles.split(",")) {
+			if(taille.isEmpty())
+				continue;
+			String km[] = taille.split("x");
+			Enigme e = Enigme.generer(Integer.parseInt(km[0]), Integer.parseInt(km[1]), graine, null);
+			// les énigmes plus grandes se résolvent moins vite : moins de tours, même temps total
+			int facteur = Math.max(1, e.nbAttributs() * e.m / 25);
+			Mesure paire[] = comparer(taille, () -> e.construireModele(false), () -> e.construireModele(true),
+					Math.max(3, repetitions / facteur), Math.max(1, echauffement / facteur), memoire);
+			afficher(paire[0]);
+			afficher(paire[1]);
+			afficherRapports(paire[0], paire[1]);
+			mesures.addAll(Arrays.asList(paire));
+		}
+		if(sortie != null)
+			enregistrer(sortie, mesures);
+	}
+}
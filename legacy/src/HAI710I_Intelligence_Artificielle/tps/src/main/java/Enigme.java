@@ -0,0 +1,459 @@
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import org.chocosolver.solver.Model;
+import org.chocosolver.solver.Solver;
+import org.chocosolver.solver.constraints.extension.Tuples;
+import org.chocosolver.solver.variables.IntVar;
+
+/**
+ * Énigme logique à la Einstein (le zèbre généralisé) : m maisons en ligne, k
+ * attributs de m valeurs chacun, chaque valeur dans exactement une maison.
+ *
+ * Format texte (une déclaration par ligne, # commente la fin de ligne) :
+ *   maisons 5
+ *   attribut couleur Blue Green Ivory Red Yellow
+ *   attribut A2                     valeurs A2.1 .. A2.m
+ *   meme English Red                même maison
+ *   voisin Chesterfield Fox         maisons voisines
+ *   gauche Ivory Green              Ivory immédiatement à gauche de Green
+ *   position Milk 3                 Milk dans la maison 3 (de 1 à m)
+ * Les noms de valeurs sont uniques dans toute l'énigme. zebre.enigme contient
+ * le problème de ZebreIntension dans ce format.
+ *
+ * construireModele produit les deux codages de ZebreIntension (allDifferent,
+ * arithm, distance) et de ZebreExtension (tables binaires, dont les Tuples
+ * sont partagés entre contraintes de même sorte), sur les mêmes variables :
+ * une par valeur, de domaine [1, m].
+ *
+ * generer tire une solution au hasard puis ajoute des indices vrais dans cette
+ * solution tant que le modèle a une autre solution, chaque nouvel indice étant
+ * choisi faux dans cette autre solution : l'énigme obtenue a une solution
+ * unique. reduire retire ensuite les indices dont l'unicité n'a pas besoin.
+ *
+ * usage : Enigme [fichier.enigme] [-generer k m] [-graine 1] [-reduire]
+ *                [-sortie fichier.enigme] [-extension]
+ */
+public class Enigme {
+
+	enum Type {
+		MEME("meme"), VOISIN("voisin"), GAUCHE("gauche"), POSITION("position");
+
+		final String mot;
+
+		Type(String mot) {
+			this.mot = mot;
+		}
+	}
+
+	/** Un indice sur la valeur va de l'attribut a et, sauf POSITION, la valeur vb de l'attribut b. */
+	static final class Indice {
+		final Type type;
+		final int a, va;
+		final int b, vb;		// POSITION : b = -1 et vb la maison, de 0 à m-1
+
+		Indice(Type type, int a, int va, int b, int vb) {
+			this.type = type;
+			this.a = a;
+			this.va = va;
+			this.b = b;
+			this.vb = vb;
+		}
+
+		/** Vrai si l'indice est satisfait quand maison[i][v] est la maison de la valeur v de l'attribut i. */
+		boolean vrai(int[][] maison) {
+			int ha = maison[a][va];
+			switch(type) {
+				case MEME:
+					return ha == maison[b][vb];
+				case VOISIN:
+					return Math.abs(ha - maison[b][vb]) == 1;
+				case GAUCHE:
+					return ha + 1 == maison[b][vb];
+				default:
+					return ha == vb;
+			}
+		}
+	}
+
+	private static final String VARIABLES = "enigme";
+
+	final int m;
+	final List<String> attributs = new ArrayList<>();
+	final List<String[]> valeurs = new ArrayList<>();
+	final List<Indice> indices = new ArrayList<>();
+	private final Map<String, int[]> parNom = new HashMap<>();
+
+	Enigme(int m) {
+		this.m = m;
+	}
+
+	int nbAttributs() {
+		return attributs.size();
+	}
+
+	/** Ajoute un attribut ; noms null donne les valeurs nom.1 .. nom.m. */
+	void ajouterAttribut(String nom, String[] noms) {
+		if(noms == null) {
+			noms = new String[m];
+			for(int v=0;v<m;v++)
+				noms[v] = nom+"."+(v+1);
+		}
+		if(noms.length != m)
+			throw new IllegalArgumentException("Enigme : l'attribut "+nom+" a "+noms.length+" valeurs au lieu de "+m);
+		int i = attributs.size();
+		for(int v=0;v<m;v++)
+			if(parNom.put(noms[v], new int[]{i, v}) != null)
+				throw new IllegalArgumentException("Enigme : valeur "+noms[v]+" déclarée deux fois");
+		attributs.add(nom);
+		valeurs.add(noms);
+	}
+
+	private static String[] nomsParDefaut(String nom, String[] noms) {
+		for(int v=0;v<noms.length;v++)
+			if(!noms[v].equals(nom+"."+(v+1)))
+				return noms;
+		return null;
+	}
+
+	public static Enigme lire(String fichier) throws IOException {
+		Enigme e = null;
+		int numero = 0;
+		for(String ligne : Files.readAllLines(Paths.get(fichier), StandardCharsets.UTF_8)) {
+			numero++;
+			int diese = ligne.indexOf('#');
+			if(diese >= 0)
+				ligne = ligne.substring(0, diese);
+			ligne = ligne.trim();
+			if(ligne.isEmpty())
+				continue;
+			String mots[] = ligne.split("\\s+");
+			try {
+				if(mots[0].equals("maisons")) {
+					if(e != null)
+						throw new IllegalArgumentException("maisons déclaré deux fois");
+					e = new Enigme(Integer.parseInt(mots[1]));
+					continue;
+				}
+				if(e == null)
+					throw new IllegalArgumentException("maisons attendu en premier");
+				if(mots[0].equals("attribut"))
+					e.ajouterAttribut(mots[1], mots.length == 2 ? null : Arrays.copyOfRange(mots, 2, mots.length));
+				else
+					e.indices.add(e.lireIndice(mots));
+			} catch(RuntimeException ex) {
+				throw new IOException(fichier+":"+numero+" : "+ex.getMessage(), ex);
+			}
+		}
+		if(e == null)
+			throw new IOException(fichier+" : aucune énigme");
+		return e;
+	}
+
+	private Indice lireIndice(String[] mots) {
+		Type type = null;
+		for(Type t : Type.values())
+			if(t.mot.equals(mots[0]))
+				type = t;
+		if(type == null || mots.length != 3)
+			throw new IllegalArgumentException("indice attendu (meme|voisin|gauche|position x y) : "+String.join(" ", mots));
+		int x[] = valeur(mots[1]);
+		if(type == Type.POSITION) {
+			int h = Integer.parseInt(mots[2]);
+			if(h < 1 || h > m)
+				throw new IllegalArgumentException("maison "+h+" hors de [1, "+m+"]");
+			return new Indice(type, x[0], x[1], -1, h-1);
+		}
+		int y[] = valeur(mots[2]);
+		return new Indice(type, x[0], x[1], y[0], y[1]);
+	}
+
+	private int[] valeur(String nom) {
+		int iv[] = parNom.get(nom);
+		if(iv == null)
+			throw new IllegalArgumentException("valeur inconnue "+nom);
+		return iv;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder();
+		sb.append("maisons ").append(m).append('\n');
+		for(int i=0;i<nbAttributs();i++) {
+			sb.append("attribut ").append(attributs.get(i));
+			String noms[] = nomsParDefaut(attributs.get(i), valeurs.get(i));
+			if(noms != null)
+				sb.append(' ').append(String.join(" ", noms));
+			sb.append('\n');
+		}
+		for(Indice c : indices) {
+			sb.append(c.type.mot).append(' ').append(valeurs.get(c.a)[c.va]).append(' ');
+			sb.append(c.type == Type.POSITION ? Integer.toString(c.vb+1) : valeurs.get(c.b)[c.vb]).append('\n');
+		}
+		return sb.toString();
+	}
+
+	void ecrire(String fichier) throws IOException {
+		try(PrintWriter sortie = new PrintWriter(Files.newBufferedWriter(Paths.get(fichier), StandardCharsets.UTF_8))) {
+			sortie.print(this);
+		}
+	}
+
+	/** Le modèle de l'énigme, codé comme ZebreExtension si extension, comme ZebreIntension sinon. */
+	public Model construireModele(boolean extension) {
+		int k = nbAttributs();
+		Model model = new Model("Enigme"+k+"x"+m);
+		IntVar var[][] = new IntVar[k][m];
+		for(int i=0;i<k;i++)
+			for(int v=0;v<m;v++)
+				var[i][v] = model.intVar(valeurs.get(i)[v], 1, m);
+		model.addHook(VARIABLES, var);
+		if(extension)
+			posterTables(model, var);
+		else
+			posterIntension(model, var);
+		return model;
+	}
+
+	private void posterIntension(Model model, IntVar[][] var) {
+		for(IntVar[] attribut : var)
+			model.allDifferent(attribut).post();
+		for(Indice c : indices) {
+			IntVar x = var[c.a][c.va];
+			switch(c.type) {
+				case MEME:
+					model.arithm(x, "=", var[c.b][c.vb]).post();
+					break;
+				case VOISIN:
+					model.distance(x, var[c.b][c.vb], "=", 1).post();
+					break;
+				case GAUCHE:
+					model.arithm(var[c.b][c.vb], "=", x, "+", 1).post();
+					break;
+				default:
+					model.arithm(x, "=", c.vb+1).post();
+			}
+		}
+	}
+
+	private void posterTables(Model model, IntVar[][] var) {
+		int egal[][] = new int[m][], voisin[][] = new int[2*(m-1)][], gauche[][] = new int[m-1][];
+		for(int h=1;h<=m;h++)
+			egal[h-1] = new int[]{h, h};
+		for(int h=1;h<m;h++) {
+			voisin[2*(h-1)] = new int[]{h, h+1};
+			voisin[2*(h-1)+1] = new int[]{h+1, h};
+			gauche[h-1] = new int[]{h, h+1};
+		}
+		Tuples tuplesAutorises = new Tuples(egal, true);
+		Tuples tuplesInterdits = new Tuples(egal, false);
+		Tuples tuplesVoisins = new Tuples(voisin, true);
+		Tuples tuplesGauche = new Tuples(gauche, true);
+		for(IntVar[] attribut : var)
+			for(int v=0;v<m;v++)
+				for(int w=v+1;w<m;w++)
+					model.table(new IntVar[]{attribut[v], attribut[w]}, tuplesInterdits).post();
+		// comme ho1 et ho3 dans ZebreExtension : une constante par maison citée
+		IntVar maisons[] = new IntVar[m];
+		for(Indice c : indices) {
+			IntVar x = var[c.a][c.va];
+			switch(c.type) {
+				case MEME:
+					model.table(new IntVar[]{x, var[c.b][c.vb]}, tuplesAutorises).post();
+					break;
+				case VOISIN:
+					model.table(new IntVar[]{x, var[c.b][c.vb]}, tuplesVoisins).post();
+					break;
+				case GAUCHE:
+					model.table(new IntVar[]{x, var[c.b][c.vb]}, tuplesGauche).post();
+					break;
+				default:
+					if(maisons[c.vb] == null)
+						maisons[c.vb] = model.intVar("House "+(c.vb+1), c.vb+1, c.vb+1);
+					model.table(new IntVar[]{x, maisons[c.vb]}, tuplesAutorises).post();
+			}
+		}
+	}
+
+	/** Les variables du modèle : variables(model)[i][v] est la maison (de 1 à m) de la valeur v de l'attribut i. */
+	static IntVar[][] variables(Model model) {
+		return (IntVar[][]) model.getHook(VARIABLES);
+	}
+
+	/** La solution courante du modèle, maisons de 0 à m-1. */
+	static int[][] maisons(Model model) {
+		IntVar var[][] = variables(model);
+		int maison[][] = new int[var.length][];
+		for(int i=0;i<var.length;i++) {
+			maison[i] = new int[var[i].length];
+			for(int v=0;v<var[i].length;v++)
+				maison[i][v] = var[i][v].getValue() - 1;
+		}
+		return maison;
+	}
+
+	/** Une solution de l'énigme autre que maison, ou null si maison est la seule. */
+	int[][] autreSolution(int[][] maison) {
+		Solver solver = construireModele(false).getSolver();
+		// parmi deux solutions, au moins une n'est pas maison
+		for(int s=0;s<2 && solver.solve();s++) {
+			int trouvee[][] = maisons(solver.getModel());
+			if(!Arrays.deepEquals(trouvee, maison))
+				return trouvee;
+		}
+		return null;
+	}
+
+	/**
+	 * Une énigme à solution unique de k attributs et m maisons (noms A1.1 ...),
+	 * dont la solution cachée est rendue dans solution si ce n'est pas null.
+	 */
+	static Enigme generer(int k, int m, long graine, int[][] solution) {
+		SplittableRandom hasard = new SplittableRandom(graine);
+		Enigme e = new Enigme(m);
+		int maison[][] = new int[k][m], occupant[][] = new int[k][m];
+		for(int i=0;i<k;i++) {
+			e.ajouterAttribut("A"+(i+1), null);
+			for(int v=0;v<m;v++) {
+				int j = hasard.nextInt(v+1);
+				occupant[i][v] = occupant[i][j];
+				occupant[i][j] = v;
+			}
+			for(int h=0;h<m;h++)
+				maison[i][occupant[i][h]] = h;
+		}
+		int autre[][];
+		while((autre = e.autreSolution(maison)) != null)
+			e.indices.add(indiceDiscriminant(maison, occupant, autre, hasard));
+		if(solution != null)
+			for(int i=0;i<k;i++)
+				solution[i] = maison[i];
+		return e;
+	}
+
+	/** Un indice vrai dans maison et faux dans autre, qui porte sur une valeur placée différemment. */
+	private static Indice indiceDiscriminant(int[][] maison, int[][] occupant, int[][] autre, SplittableRandom hasard) {
+		int k = maison.length, m = maison[0].length;
+		List<int[]> deplacees = new ArrayList<>();
+		for(int i=0;i<k;i++)
+			for(int v=0;v<m;v++)
+				if(maison[i][v] != autre[i][v])
+					deplacees.add(new int[]{i, v});
+		for(int essai=0;essai<100;essai++) {
+			int iv[] = deplacees.get(hasard.nextInt(deplacees.size()));
+			int i = iv[0], v = iv[1], h = maison[i][v];
+			int j = hasard.nextInt(k);
+			Indice c;
+			int tirage = hasard.nextInt(10);
+			if(tirage < 4) {
+				if(j == i)
+					continue;
+				c = new Indice(Type.MEME, i, v, j, occupant[j][h]);
+			} else if(tirage < 9 && m > 1) {
+				int h2 = h == 0 ? 1 : h == m-1 ? m-2 : h + (hasard.nextBoolean() ? 1 : -1);
+				int w = occupant[j][h2];
+				if(tirage < 6)
+					c = new Indice(Type.VOISIN, i, v, j, w);
+				else
+					c = h2 == h+1 ? new Indice(Type.GAUCHE, i, v, j, w) : new Indice(Type.GAUCHE, j, w, i, v);
+			} else
+				c = new Indice(Type.POSITION, i, v, -1, h);
+			if(!c.vrai(autre))
+				return c;
+		}
+		int iv[] = deplacees.get(hasard.nextInt(deplacees.size()));
+		return new Indice(Type.POSITION, iv[0], iv[1], -1, maison[iv[0]][iv[1]]);
+	}
+
+	/** Retire, dans un ordre aléatoire, les indices dont l'unicité de la solution maison n'a pas besoin. */
+	void reduire(int[][] maison, long graine) {
+		List<Indice> ordre = new ArrayList<>(indices);
+		Collections.shuffle(ordre, new java.util.Random(graine));
+		for(Indice c : ordre) {
+			int pos = indices.indexOf(c);
+			indices.remove(pos);
+			if(autreSolution(maison) != null)
+				indices.add(pos, c);
+		}
+	}
+
+	/** Les maisons une par ligne, avec leurs valeurs. */
+	String afficher(int[][] maison) {
+		StringBuilder sb = new StringBuilder();
+		String occupants[][] = new String[m][nbAttributs()];
+		for(int i=0;i<nbAttributs();i++)
+			for(int v=0;v<m;v++)
+				occupants[maison[i][v]][i] = valeurs.get(i)[v];
+		for(int h=0;h<m;h++)
+			sb.append("Maison ").append(h+1).append(" : ").append(String.join(" ", occupants[h])).append('\n');
+		return sb.toString();
+	}
+
+	public static void main(String[] args) throws IOException {
+		args = Trace.options(args);
+		String fichier = "zebre.enigme";
+		int k = 0, m = 0;
+		long graine = 1;
+		boolean reduire = false, extension = false;
+		String sortie = null;
+		for(int a=0;a<args.length;a++) {
+			if(args[a].equals("-generer")) {
+				k = Integer.parseInt(args[++a]);
+				m = Integer.parseInt(args[++a]);
+			} else if(args[a].equals("-graine"))
+				graine = Long.parseLong(args[++a]);
+			else if(args[a].equals("-reduire"))
+				reduire = true;
+			else if(args[a].equals("-sortie"))
+				sortie = args[++a];
+			else if(args[a].equals("-extension"))
+				extension = true;
+			else
+				fichier = args[a];
+		}
+
+		Enigme e;
+		if(k > 0) {
+			long t0 = System.nanoTime();
+			int solution[][] = new int[k][];
+			e = generer(k, m, graine, solution);
+			int avant = e.indices.size();
+			Trace.afficher(Trace.Niveau.BILAN, String.format("Génération %dx%d : %d indices en %.1f ms", k, m, avant, (System.nanoTime()-t0)/1e6));
+			if(reduire) {
+				t0 = System.nanoTime();
+				e.reduire(solution, graine);
+				Trace.afficher(Trace.Niveau.BILAN, String.format("Réduction : %d -> %d indices en %.1f ms", avant, e.indices.size(), (System.nanoTime()-t0)/1e6));
+			}
+		} else
+			e = lire(fichier);
+		if(sortie != null)
+			e.ecrire(sortie);
+		Trace.afficher(Trace.Niveau.MODELE, e::toString);
+
+		long t0 = System.nanoTime();
+		Model model = e.construireModele(extension);
+		long construction = System.nanoTime() - t0;
+		Solver solver = model.getSolver();
+		if(solver.solve()) {
+			int maison[][] = maisons(model);
+			Trace.afficher(Trace.Niveau.INSTANCE, () -> "*** Première solution ***\n"+e.afficher(maison));
+			boolean unique = !solver.solve();
+			Trace.afficher(Trace.Niveau.BILAN, unique ? "Solution unique" : "Plusieurs solutions");
+		} else
+			Trace.afficher(Trace.Niveau.BILAN, "Pas de solution");
+		Trace.afficher(Trace.Niveau.BILAN, String.format("%s, %d attributs, %d maisons, %d indices : construction %.1f ms, %d contraintes",
+				extension ? "extension" : "intension", e.nbAttributs(), e.m, e.indices.size(), construction/1e6, model.getNbCstrs()));
+		if(Trace.actif(Trace.Niveau.BILAN))
+			solver.printStatistics();
+	}
+}
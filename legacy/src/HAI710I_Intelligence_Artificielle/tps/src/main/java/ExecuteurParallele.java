@@ -0,0 +1,80 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Résout des réseaux indépendants en parallèle sur un nombre fixé de threads.
+ * Chaque tâche lit, construit et résout son réseau ; les compteurs de succès
+ * et d'insatisfiabilité sont partagés entre les threads et cumulés d'un appel
+ * à l'autre. Avec un JournalResultats, chaque résultat y est enregistré dès
+ * que sa tâche se termine.
+ */
+public class ExecuteurParallele implements AutoCloseable {
+
+	private final ExecutorService pool;
+	private final int nbThreads;
+	private final AtomicInteger nbSucces = new AtomicInteger();
+	private final AtomicInteger nbInsat = new AtomicInteger();
+	private final JournalResultats journal;
+
+	public ExecuteurParallele(int nbThreads) {
+		this(nbThreads, null);
+	}
+
+	public ExecuteurParallele(int nbThreads, JournalResultats journal) {
+		this.nbThreads = nbThreads;
+		this.journal = journal;
+		pool = Executors.newFixedThreadPool(nbThreads);
+	}
+
+	public int nbThreads() {
+		return nbThreads;
+	}
+
+	/** Exécute les tâches et rend leurs résultats dans l'ordre des tâches. */
+	public List<Resultat> executer(List<Callable<Resultat>> taches) throws Exception {
+		List<Future<Resultat>> futurs = new ArrayList<>();
+		for(Callable<Resultat> tache : taches)
+			futurs.add(pool.submit(() -> compter(tache.call())));
+		List<Resultat> resultats = new ArrayList<>();
+		try {
+			for(Future<Resultat> f : futurs)
+				resultats.add(f.get());
+		} catch(ExecutionException e) {
+			for(Future<Resultat> f : futurs)
+				f.cancel(true);
+			if(e.getCause() instanceof Exception)
+				throw (Exception) e.getCause();
+			throw e;
+		}
+		return resultats;
+	}
+
+	private Resultat compter(Resultat res) throws InterruptedException {
+		if(res.statut == Resultat.Statut.SATISFIABLE)
+			nbSucces.incrementAndGet();
+		else if(res.statut == Resultat.Statut.INSATISFIABLE)
+			nbInsat.incrementAndGet();
+		if(journal != null)
+			journal.enregistrer(res);
+		return res;
+	}
+
+	public int nbSucces() {
+		return nbSucces.get();
+	}
+
+	public int nbInsat() {
+		return nbInsat.get();
+	}
+
+	@Override
+	public void close() {
+		pool.shutdownNow();
+	}
+}
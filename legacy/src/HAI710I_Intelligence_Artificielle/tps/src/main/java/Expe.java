@@ -1,9 +1,13 @@
 import java.io.BufferedReader;
 import java.io.FileReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
 
 import org.chocosolver.solver.Model;
 import org.chocosolver.solver.constraints.extension.Tuples;
 import org.chocosolver.solver.variables.IntVar;
+import org.chocosolver.util.tools.TimeUtils;
 
 public class Expe {
 
@@ -30,47 +34,243 @@ public class Expe {
 	}	
 		
 			
+	private static void afficherDebit(String ficName, long octets, long nanos) {
+		double mo = octets / (1024.0*1024.0);
+		double secondes = Math.max(nanos, 1) / 1e9;
+		Trace.afficher(Trace.Niveau.BILAN, () -> String.format("Lecture de %s : %.3f Mo en %.3f ms (%.1f Mo/s)", ficName, mo, nanos/1e6, mo/secondes));
+	}
+
+	/** Numéros de réseaux (à partir de 1) décrits par une liste comme "4312" ou "1-3,10". */
+	private static int[] lireSelection(String selection) {
+		List<Integer> numeros = new ArrayList<>();
+		for(String partie : selection.split(",")) {
+			String bornes[] = partie.split("-");
+			int debut = Integer.parseInt(bornes[0].trim());
+			int fin = bornes.length > 1 ? Integer.parseInt(bornes[1].trim()) : debut;
+			for(int n=debut;n<=fin;n++)
+				numeros.add(n);
+		}
+		return numeros.stream().mapToInt(Integer::intValue).toArray();
+	}
+
+	/** Lit et résout le réseau numéro nb (à partir de 1) ; appelé depuis les threads de l'exécuteur. */
+	static Resultat resoudre(String ficName, SourceReseaux source, int nb, Moteur moteur, long limiteMs, CacheTuples cache, boolean bitset) throws Exception {
+		return resoudre(ficName, source, nb, moteur, limiteMs, cache, bitset, null, false);
+	}
+
+	/**
+	 * Idem en passant d'abord par le cache des résultats (s'il n'est pas null) :
+	 * un réseau déjà résolu avec la même configuration n'est pas résolu à nouveau,
+	 * sauf si recalculer ; le nouveau résultat remplace alors l'ancien.
+	 */
+	static Resultat resoudre(String ficName, SourceReseaux source, int nb, Moteur moteur, long limiteMs, CacheTuples cache, boolean bitset,
+			CacheResultats resultats, boolean recalculer) throws Exception {
+		Resultat res = new Resultat(ficName, nb);
+		long t0 = System.nanoTime();
+		Reseau reseau = source.lire(nb-1);
+		reseau.tuplesPartages = cache;
+		reseau.tablesBitset = bitset;
+		res.tempsLecture = System.nanoTime() - t0;
+		res.octets = source.octets(nb-1);
+
+		String cle = null;
+		if(resultats != null) {
+			cle = CacheResultats.cle(reseau, moteur.configuration()+"/limite="+limiteMs+(bitset ? "/bitset" : ""));
+			if(!recalculer && resultats.chercher(cle, res))
+				return res;
+		}
+
+		long alloues = JournalResultats.octetsAlloues();
+		t0 = System.nanoTime();
+		moteur.resoudre(reseau, limiteMs, res);
+		// le moteur a mesuré sa propre construction
+		res.tempsResolution = System.nanoTime() - t0 - res.tempsConstruction;
+		// un moteur qui travaille sur d'autres threads (portfolio) y a ajouté leurs allocations
+		if(alloues >= 0)
+			res.octetsAlloues += JournalResultats.octetsAlloues() - alloues;
+		if(resultats != null)
+			resultats.enregistrer(cle, res);
+		return res;
+	}
+
+	static Moteur creerMoteur(String nom, String strategie) {
+		return creerMoteur(nom, strategie, false);
+	}
+
+	static Moteur creerMoteur(String nom, String strategie, boolean gabarit) {
+		return creerMoteur(nom, strategie, gabarit, false);
+	}
+
+	static Moteur creerMoteur(String nom, String strategie, boolean gabarit, boolean reecrire) {
+		switch(nom) {
+			case "mac":
+				return new MoteurMAC();
+			case "fc":
+				return new MoteurFCCBJ(false);
+			case "fccbj":
+				return new MoteurFCCBJ(true);
+			case "minconflits":
+				return new MoteurMinConflits(1);
+			default:
+				// minconflits-7 : recherche locale avec la graine 7
+				if(nom.startsWith("minconflits-"))
+					return new MoteurMinConflits(Long.parseLong(nom.substring("minconflits-".length())));
+				return new MoteurChoco(StrategieRecherche.lire(strategie), gabarit, reecrire);
+		}
+	}
+
 	public static void main(String[] args) throws Exception{
+		// -v silence|bilan|instance|modele et -echantillon N : voir Trace
+		args = Trace.options(args);
 		String files_to_read[] = new String[] {"benchSatisf.txt", "benchInsat.txt"};
 		// String ficName = "bench.txt";
 		int nbRes=3;
-		int nb_success = 0;
-		double nb_total = 0;
-		for (String ficName : files_to_read) {
-			
-		BufferedReader readFile = new BufferedReader(new FileReader(ficName));
-		for(int nb=1 ; nb<=nbRes; nb++) {
-			Model model=lireReseau(readFile);
-			if(model==null) {
-				System.out.println("Problème de lecture de fichier !\n");
-				return;
+		int selection[] = null;		// -reseaux 4312 ou -reseaux 1-3,10 : réseaux à résoudre dans chaque fichier
+		int nbThreads = Runtime.getRuntime().availableProcessors();	// -threads 4
+		String limite = "10s";		// -limite 30s
+		String strategie = "defaut";	// -strategie domwdeg+luby+nogoods : stratégie du solveur unique (voir StrategieRecherche)
+		String portfolio = null;		// -portfolio : plusieurs stratégies en parallèle sur chaque réseau
+		boolean threadsFixes = false;
+		boolean bitset = false;		// -tables bitset : PropTableBinaire au lieu de model.table
+		String resultats = null;	// -resultats mesures.csv ou mesures.jsonl : un enregistrement par résolution
+		String fichierCache = "resultats.cache";	// -cache fichier : résultats déjà calculés (CacheResultats), -sans-cache pour s'en passer
+		boolean recalculer = false;	// -recalculer : résout à nouveau même si le résultat est dans le cache
+		String budget = null;		// -budget 1s+geometrique-2 ou 0.5s+luby : passages à budget croissant (PlanificateurBudget), jusqu'à -limite
+		String plafond = null;		// -plafond 1h : temps total de la campagne avec -budget
+		boolean gabarit = false;	// -gabarit : Choco réutilise le modèle d'un réseau à l'autre (GabaritModele)
+		boolean reecrire = false;	// -reecrire : Choco remplace les tables =, !=, décalage ou distance par arithm/distance (ReecritureTables)
+		String nomMoteur = "choco";	// -moteur mac|fc|fccbj|minconflits : moteurs du projet au lieu de Choco
+		List<String> fichiers = new ArrayList<>();
+		for(int a=0;a<args.length;a++) {
+			if(args[a].equals("-reseaux"))
+				selection = lireSelection(args[++a]);
+			else if(args[a].equals("-threads")) {
+				nbThreads = Integer.parseInt(args[++a]);
+				threadsFixes = true;
 			}
-			System.out.println("Réseau lu dans "+ficName+" numero "+nb+" :\n"+model+"\n\n");
+			else if(args[a].equals("-tables"))
+				bitset = args[++a].equals("bitset");
+			else if(args[a].equals("-gabarit"))
+				gabarit = true;
+			else if(args[a].equals("-reecrire"))
+				reecrire = true;
+			else if(args[a].equals("-moteur"))
+				nomMoteur = args[++a];
+			else if(args[a].equals("-strategie"))
+				strategie = args[++a];
+			else if(args[a].equals("-portfolio"))
+				portfolio = "domwdeg,activite,aleatoire-1,aleatoire-2";
+			else if(args[a].equals("-strategies"))
+				portfolio = args[++a];
+			else if(args[a].equals("-limite"))
+				limite = args[++a];
+			else if(args[a].equals("-budget"))
+				budget = args[++a];
+			else if(args[a].equals("-plafond"))
+				plafond = args[++a];
+			else if(args[a].equals("-resultats"))
+				resultats = args[++a];
+			else if(args[a].equals("-cache"))
+				fichierCache = args[++a];
+			else if(args[a].equals("-sans-cache"))
+				fichierCache = null;
+			else if(args[a].equals("-recalculer"))
+				recalculer = true;
+			else
+				fichiers.add(args[a]);
+		}
+		if(!fichiers.isEmpty())
+			files_to_read = fichiers.toArray(new String[0]);
+		if(selection == null) {
+			selection = new int[nbRes];
+			for(int nb=1 ; nb<=nbRes; nb++)
+				selection[nb-1] = nb;
+		}
+		List<Moteur> moteurs = new ArrayList<>();
+		if(portfolio != null) {
+			List<StrategieRecherche> strategies = new ArrayList<>();
+			for(String nom : portfolio.split(","))
+				strategies.add(StrategieRecherche.lire(nom));
+			moteurs.add(new MoteurPortfolio(strategies));
+			// chaque réseau occupe déjà un coeur par stratégie
+			if(!threadsFixes)
+				nbThreads = Math.max(1, nbThreads / strategies.size());
+		} else {
+			// -moteur choco,fc,fccbj : les moteurs sont lancés l'un après l'autre sur les mêmes réseaux
+			for(String nom : nomMoteur.split(","))
+				moteurs.add(creerMoteur(nom, strategie, gabarit, reecrire));
+		}
+		long limiteMs = TimeUtils.convertInMilliseconds(limite);
+		final boolean tablesBitset = bitset;
+		boolean tuplesChoco = false;
+		for(Moteur moteur : moteurs)
+			tuplesChoco |= !bitset && (moteur instanceof MoteurChoco || moteur instanceof MoteurPortfolio);
+		final boolean forcer = recalculer;
+		// le plafond court dès maintenant, pour tous les fichiers et tous les moteurs
+		PlanificateurBudget planificateur = budget == null ? null
+				: PlanificateurBudget.lire(budget, limiteMs, plafond == null ? Long.MAX_VALUE : TimeUtils.convertInMilliseconds(plafond));
+		try(JournalResultats journal = resultats != null ? new JournalResultats(resultats) : null;
+				CacheResultats dejaResolus = fichierCache != null ? new CacheResultats(fichierCache) : null;
+				ExecuteurParallele executeur = new ExecuteurParallele(nbThreads, journal)) {
+			for (String ficName : files_to_read) {
 
-			
-			model.getSolver().limitTime("10s");
-			// Calcul de la première solution
-			if(model.getSolver().solve()) {
-				// System.out.println("\n\n*** Première solution ***");        
-				// System.out.println(model);
-				// on a trouvé une solution donc 
-				// on augmente de 1 le nombre de reussites et de modeles
-				nb_success += 1;
-				nb_total += 1;
-			} else if (model.getSolver().isStopCriterionMet()) {
-				System.out.println("The solver could not find a solution nor prove that none exists in the given time");
-			} else {
-				System.out.println("The solver has proved the problem has no solution");
-				// on a trouvé un modele qui n'a pas de solution
-				nb_total += 1;
+			// l'index (ou la table des fichiers .bin) permet d'aller directement au réseau voulu
+			SourceReseaux source = SourceReseaux.ouvrir(ficName);
+			// seuls les modèles Choco à tables (model.table) reprennent des Tuples du cache
+			CacheTuples cache = tuplesChoco ? new CacheTuples() : null;
+			for(Moteur moteur : moteurs) {
+			List<Callable<Resultat>> taches = new ArrayList<>();
+			for(int nb : selection) {
+				if(nb < 1 || nb > source.nbReseaux()) {
+					System.out.println("Problème de lecture de fichier !\n");
+					return;
+				}
+				taches.add(() -> resoudre(ficName, source, nb, moteur, limiteMs, cache, tablesBitset, dejaResolus, forcer));
 			}
-
-			// Affichage de l'ensemble des caractéristiques de résolution
-			// System.out.println("\n\n*** Bilan ***");        
-			// model.getSolver().printStatistics();
-		}
-		double nb_reussites_percent = nb_success / nb_total * 100;
-		System.out.println("Total de reussites: "+nb_reussites_percent+"%");
+			List<Resultat> obtenus = planificateur == null ? executeur.executer(taches)
+					: planificateur.executer(executeur, ficName, selection, moteur.varier(1) != null,
+							(nb, budgetMs, passage) -> {
+								// à partir du deuxième passage, un moteur aléatoire change de graine
+								Moteur varie = passage == 0 ? null : moteur.varier(passage);
+								return resoudre(ficName, source, nb, varie != null ? varie : moteur, budgetMs, cache, tablesBitset, dejaResolus, forcer);
+							});
+			long tempsLecture = 0;
+			long octetsLus = 0;
+			long tempsResolution = 0;
+			long noeuds = 0;
+			int depuisCache = 0;
+			for(Resultat res : obtenus) {
+				if (res.statut == Resultat.Statut.INCONNU) {
+					Trace.instance(Trace.Niveau.INSTANCE, res.numero, () -> "The solver could not find a solution nor prove that none exists in the given time");
+				} else if (res.statut == Resultat.Statut.INSATISFIABLE) {
+					Trace.instance(Trace.Niveau.INSTANCE, res.numero, () -> "The solver has proved the problem has no solution");
+				}
+				if(portfolio != null && res.strategie != null)
+					Trace.instance(Trace.Niveau.INSTANCE, res.numero, () -> "Réseau "+res.numero+" : "+res.statut+" par la stratégie "+res.strategie);
+				tempsLecture += res.tempsLecture;
+				octetsLus += res.octets;
+				tempsResolution += res.tempsResolution;
+				noeuds += res.noeuds;
+				if(res.depuisCache)
+					depuisCache++;
+			}
+			if(depuisCache > 0)
+				Trace.afficher(Trace.Niveau.BILAN, depuisCache+" réseau(x) repris du cache "+fichierCache+" (-recalculer pour les résoudre à nouveau)");
+			Trace.afficher(Trace.Niveau.BILAN, String.format("Résolution (%s) : %.1f ms, %d noeuds", moteur.nom(), tempsResolution/1e6, noeuds));
+			if(octetsLus > 0)
+				afficherDebit(ficName, octetsLus, tempsLecture);
+			}
+			source.close();
+			if(cache != null && cache.nbDemandes() > 0)
+				Trace.afficher(Trace.Niveau.BILAN, () -> "Tuples de "+ficName+" : "+cache.bilan());
+			// on compte les réseaux résolus et ceux prouvés sans solution
+			double nb_total = executeur.nbSucces() + executeur.nbInsat();
+			double nb_reussites_percent = executeur.nbSucces() / nb_total * 100;
+			Trace.afficher(Trace.Niveau.BILAN, "Total de reussites: "+nb_reussites_percent+"%");
+			}
+		} finally {
+			for(Moteur moteur : moteurs)
+				moteur.close();
 		}
 		return;	
 	}
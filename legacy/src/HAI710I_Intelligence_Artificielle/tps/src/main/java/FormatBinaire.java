@@ -0,0 +1,117 @@
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Arrays;
+
+/**
+ * Format binaire compact pour les fichiers bench, et conversion depuis le
+ * format texte de urbcsp.c.
+ *
+ * Disposition du fichier (entiers big-endian) :
+ *   en-tête   : MAGIE (int), VERSION (int), nbReseaux (int), position de la table (long)
+ *   réseaux   : pour chaque réseau
+ *                 nbVariables (int), tailleDom (int), nbContraintes (int), largeur (int)
+ *                 puis pour chaque contrainte : x (int), y (int), nbTuples (int)
+ *                 suivis des 2*nbTuples valeurs codées sur "largeur" octets
+ *   table     : nbReseaux+1 positions (long), la dernière étant la fin des données
+ *
+ * La largeur vaut 1 (byte) ou 2 (short) quand le domaine le permet, 4 sinon.
+ * La table est écrite en fin de fichier pour pouvoir convertir en une seule passe.
+ */
+public class FormatBinaire implements Closeable {
+
+	static final int MAGIE = 0x43535042;		// "CSPB"
+	static final int VERSION = 1;
+	static final int TAILLE_ENTETE = 4 + 4 + 4 + 8;
+
+	private final String nomFichier;
+	private final DataOutputStream sortie;
+	private long[] positions = new long[64];
+	private int nbReseaux = 0;
+	private long position = TAILLE_ENTETE;	// DataOutputStream.size() sature à 2^31-1
+
+	public FormatBinaire(String nomFichier) throws IOException {
+		this.nomFichier = nomFichier;
+		sortie = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(nomFichier), 1 << 16));
+		sortie.writeInt(MAGIE);
+		sortie.writeInt(VERSION);
+		sortie.writeInt(0);
+		sortie.writeLong(0);
+	}
+
+	static int largeur(int tailleDom) {
+		if(tailleDom <= 1 << 8)
+			return 1;
+		if(tailleDom <= 1 << 16)
+			return 2;
+		return 4;
+	}
+
+	public void ecrire(Reseau reseau) throws IOException {
+		if(nbReseaux == positions.length)
+			positions = Arrays.copyOf(positions, 2*positions.length);
+		positions[nbReseaux++] = position;
+		int largeur = largeur(reseau.tailleDom);
+		position += 16 + 12L*reseau.nbContraintes + (long) largeur*reseau.tuples.length;
+		sortie.writeInt(reseau.nbVariables);
+		sortie.writeInt(reseau.tailleDom);
+		sortie.writeInt(reseau.nbContraintes);
+		sortie.writeInt(largeur);
+		for(int k=0;k<reseau.nbContraintes;k++) {
+			sortie.writeInt(reseau.x[k]);
+			sortie.writeInt(reseau.y[k]);
+			sortie.writeInt(reseau.nbTuples(k));
+			for(int p=2*reseau.debut[k];p<2*reseau.debut[k+1];p++) {
+				int v = reseau.tuples[p];
+				switch(largeur) {
+					case 1 : sortie.writeByte(v); break;
+					case 2 : sortie.writeShort(v); break;
+					default : sortie.writeInt(v);
+				}
+			}
+		}
+	}
+
+	/** Écrit la table des positions en fin de fichier puis complète l'en-tête. */
+	@Override
+	public void close() throws IOException {
+		long fin = position;
+		for(int i=0;i<nbReseaux;i++)
+			sortie.writeLong(positions[i]);
+		sortie.writeLong(fin);
+		sortie.close();
+		try(RandomAccessFile f = new RandomAccessFile(nomFichier, "rw")) {
+			f.seek(8);
+			f.writeInt(nbReseaux);
+			f.writeLong(fin);
+		}
+	}
+
+	public int nbReseaux() {
+		return nbReseaux;
+	}
+
+	/** Convertit un fichier bench texte en fichier binaire. */
+	public static int convertir(String texte, String binaire) throws IOException {
+		try(LecteurReseau lecteur = new LecteurReseau(texte);
+			FormatBinaire sortie = new FormatBinaire(binaire)) {
+			while(lecteur.aSuivant())
+				sortie.ecrire(lecteur.lire());
+			return sortie.nbReseaux();
+		}
+	}
+
+	public static void main(String[] args) throws IOException {
+		if(args.length < 1) {
+			System.out.println("usage: FormatBinaire bench.txt [bench.bin]");
+			return;
+		}
+		String binaire = args.length > 1 ? args[1] : args[0].replaceFirst("\\.txt$", "") + ".bin";
+		long t0 = System.nanoTime();
+		int nb = convertir(args[0], binaire);
+		System.out.printf("%d réseaux convertis de %s vers %s en %.1f ms%n", nb, args[0], binaire, (System.nanoTime()-t0)/1e6);
+	}
+}
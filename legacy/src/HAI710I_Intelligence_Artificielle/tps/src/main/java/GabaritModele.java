@@ -0,0 +1,65 @@
+import java.util.function.Consumer;
+
+import org.chocosolver.solver.Model;
+import org.chocosolver.solver.constraints.Constraint;
+import org.chocosolver.solver.constraints.Propagator;
+import org.chocosolver.solver.variables.IntVar;
+
+/**
+ * Squelette de modèle réutilisé d'un réseau à l'autre : tant que le nombre de
+ * variables et la taille des domaines ne changent pas, on garde le Model et ses
+ * variables, on remet le solveur à zéro (hardReset : domaines, stratégie,
+ * redémarrages, moniteurs et limites) et on remplace seulement les contraintes.
+ * On évite ainsi d'allouer un Model, son environnement et ses variables pour
+ * chacun des milliers de petits réseaux d'une campagne.
+ *
+ * Choco numérote les propagateurs d'un modèle sans jamais réutiliser un
+ * numéro, et dom/wdeg (IntMap) comme HeuristiqueCHS dimensionnent leurs tables
+ * sur le plus grand numéro : le squelette est donc reconstruit dès que les
+ * numéros dépassent NUMERO_MAX. Les grands réseaux, qui l'atteignent tout de
+ * suite, ont ainsi un modèle neuf à chaque fois, comme sans gabarit.
+ * Une retouche du modèle après la pose des contraintes (ReecritureTables) peut
+ * remplacer chaque contrainte par une autre : la place de deux numéros par
+ * contrainte est alors réservée, et le plus grand numéro relu après elle.
+ * Un gabarit n'est utilisable que par un thread à la fois.
+ */
+final class GabaritModele {
+
+	static final int NUMERO_MAX = 512;
+
+	private Model model;
+	private IntVar[] var;
+	private int tailleDom;
+	private int numeroMax;		// plus grand numéro de propagateur donné par le modèle
+
+	/** Le modèle du réseau, sur le squelette courant si possible. */
+	Model modele(Reseau reseau) {
+		return modele(reseau, null);
+	}
+
+	/** Idem, retouche (si non null) étant appliquée au modèle une fois les contraintes posées. */
+	Model modele(Reseau reseau, Consumer<Model> retouche) {
+		int numeros = retouche != null ? 2*reseau.nbContraintes : reseau.nbContraintes;
+		if(model == null || var.length != reseau.nbVariables || tailleDom != reseau.tailleDom
+				|| numeroMax + numeros > NUMERO_MAX) {
+			model = new Model("Expe");
+			var = model.intVarArray("x",reseau.nbVariables,0,reseau.tailleDom-1);
+			tailleDom = reseau.tailleDom;
+		} else {
+			model.getSolver().hardReset();
+			// moteur de propagation vidé d'abord : les contraintes sont retirées sans mise à jour
+			// dynamique, et les nouvelles seront prises en compte à la prochaine initialisation
+			model.getSolver().getEngine().clear();
+			model.unpost(model.getCstrs());
+		}
+		reseau.posterContraintes(model, var);
+		if(retouche != null)
+			retouche.accept(model);
+		// unpost déplace des contraintes dans le tableau : on relit tous les numéros
+		numeroMax = 0;
+		for(Constraint c : model.getCstrs())
+			for(Propagator<?> p : c.getPropagators())
+				numeroMax = Math.max(numeroMax, p.getId());
+		return model;
+	}
+}
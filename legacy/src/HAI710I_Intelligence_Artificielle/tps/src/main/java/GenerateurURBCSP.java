@@ -0,0 +1,237 @@
+import java.io.BufferedWriter;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Portage de scripts/urbcsp.c : génère en mémoire, graine pour graine, les mêmes
+ * réseaux que le programme C, sans passer par un fichier texte.
+ *
+ * Comme dans le C, les I instances forment une seule suite de tirages de ran2
+ * (graine -1 par défaut) et chaque contrainte porte T couples, que Expe lit
+ * comme des tuples autorisés. Une instance consomme toujours C*(T+1) tirages :
+ * on peut donc en sauter une sans la construire.
+ *
+ * Le générateur est une SourceReseaux : "urbcsp:N,D,C,T,I[,S]" s'utilise dans
+ * Expe à la place d'un nom de fichier. Chaque thread avance sa propre copie de
+ * ran2 ; l'état est mémorisé toutes les POINTS instances pour qu'un thread qui
+ * doit revenir en arrière ne reparte pas du début.
+ */
+public class GenerateurURBCSP implements SourceReseaux {
+
+	static final String PREFIXE = "urbcsp:";
+	static final int POINTS = 64;
+
+	/** ran2 de Numerical Recipes, avec les mêmes conversions en float que le C. */
+	static final class Ran2 {
+		static final long IM1 = 2147483563, IM2 = 2147483399, IMM1 = IM1-1;
+		static final double AM = 1.0/IM1;
+		static final long IA1 = 40014, IA2 = 40692, IQ1 = 53668, IQ2 = 52774, IR1 = 12211, IR2 = 3791;
+		static final int NTAB = 32;
+		static final long NDIV = 1+IMM1/NTAB;
+		static final double EPS = 1.2e-7, RNMX = 1.0-EPS;
+
+		long idum;
+		long idum2 = 123456789;
+		long iy;
+		final long[] iv = new long[NTAB];
+
+		Ran2(long graine) {
+			idum = graine;
+		}
+
+		Ran2 copie() {
+			Ran2 r = new Ran2(idum);
+			r.idum2 = idum2;
+			r.iy = iy;
+			System.arraycopy(iv, 0, r.iv, 0, NTAB);
+			return r;
+		}
+
+		float suivant() {
+			long k;
+			if(idum <= 0) {
+				idum = -idum < 1 ? 1 : -idum;
+				idum2 = idum;
+				for(int j=NTAB+7;j>=0;j--) {
+					k = idum/IQ1;
+					idum = IA1*(idum - k*IQ1) - k*IR1;
+					if(idum < 0)
+						idum += IM1;
+					if(j < NTAB)
+						iv[j] = idum;
+				}
+				iy = iv[0];
+			}
+			k = idum/IQ1;
+			idum = IA1*(idum - k*IQ1) - k*IR1;
+			if(idum < 0)
+				idum += IM1;
+			k = idum2/IQ2;
+			idum2 = IA2*(idum2 - k*IQ2) - k*IR2;
+			if(idum2 < 0)
+				idum2 += IM2;
+			int j = (int) (iy/NDIV);
+			iy = iv[j] - idum2;
+			iv[j] = idum;
+			if(iy < 1)
+				iy += IMM1;
+			float temp = (float) (AM*iy);
+			return temp > RNMX ? (float) RNMX : temp;
+		}
+	}
+
+	/** L'état de ran2 d'un thread, juste avant l'instance suivante. */
+	private static final class Curseur {
+		Ran2 alea;
+		int suivante;
+	}
+
+	final int n, d, c, t;
+	private final int nbInstances;
+	private final long graine;
+	private final ConcurrentHashMap<Integer, Ran2> points = new ConcurrentHashMap<>();
+	private final ThreadLocal<Curseur> curseur = new ThreadLocal<>();
+
+	/** Mêmes paramètres que urbcsp : N variables, domaines de taille D, C contraintes de T couples, I instances. */
+	public GenerateurURBCSP(int n, int d, int c, int t, int nbInstances, long graine) {
+		if(n < 2)
+			throw new IllegalArgumentException("MakeURBCSP: ***Illegal value for N: "+n);
+		if(d < 2)
+			throw new IllegalArgumentException("MakeURBCSP: ***Illegal value for D: "+d);
+		if(c < 0 || c > n*(n-1)/2)
+			throw new IllegalArgumentException("MakeURBCSP: ***Illegal value for C: "+c);
+		if(t < 1 || t > d*d-1)
+			throw new IllegalArgumentException("MakeURBCSP: ***Illegal value for T: "+t);
+		this.n = n;
+		this.d = d;
+		this.c = c;
+		this.t = t;
+		this.nbInstances = nbInstances;
+		// la graine doit être négative pour démarrer une nouvelle suite
+		this.graine = graine > 0 ? -graine : graine;
+		points.put(0, new Ran2(this.graine));
+	}
+
+	public GenerateurURBCSP(int n, int d, int c, int t, int nbInstances) {
+		this(n, d, c, t, nbInstances, -1);
+	}
+
+	/** "urbcsp:N,D,C,T,I" ou "urbcsp:N,D,C,T,I,S". */
+	public static GenerateurURBCSP lire(String description) {
+		String p[] = description.substring(PREFIXE.length()).split(",");
+		if(p.length != 5 && p.length != 6)
+			throw new IllegalArgumentException("Générateur attendu sous la forme "+PREFIXE+"N,D,C,T,I[,S] : "+description);
+		return new GenerateurURBCSP(Integer.parseInt(p[0].trim()), Integer.parseInt(p[1].trim()), Integer.parseInt(p[2].trim()),
+				Integer.parseInt(p[3].trim()), Integer.parseInt(p[4].trim()), p.length > 5 ? Long.parseLong(p[5].trim()) : -1);
+	}
+
+	/** MakeURBCSP : construit l'instance suivante de la suite. */
+	Reseau generer(Ran2 alea) {
+		int possiblesCT = n*(n-1)/2;
+		int ctX[] = new int[possiblesCT], ctY[] = new int[possiblesCT];
+		int i = 0;
+		for(int v1=0;v1<n-1;v1++)
+			for(int v2=v1+1;v2<n;v2++) {
+				ctX[i] = v1;
+				ctY[i++] = v2;
+			}
+		int possiblesNG = d*d;
+		int ng[] = new int[possiblesNG];
+		int x[] = new int[c], y[] = new int[c], debut[] = new int[c+1], tuples[] = new int[2*c*t];
+		for(int k=0;k<c;k++) {
+			int r = k + (int) (alea.suivant() * (possiblesCT - k));
+			int sx = ctX[r], sy = ctY[r];
+			ctX[r] = ctX[k];
+			ctY[r] = ctY[k];
+			ctX[k] = sx;
+			ctY[k] = sy;
+			x[k] = sx;
+			y[k] = sy;
+			debut[k] = k*t;
+			for(int v=0;v<possiblesNG;v++)
+				ng[v] = v;
+			for(int u=0;u<t;u++) {
+				r = u + (int) (alea.suivant() * (possiblesNG - u));
+				int choisi = ng[r];
+				ng[r] = ng[u];
+				ng[u] = choisi;
+				tuples[2*(k*t+u)] = choisi / d;
+				tuples[2*(k*t+u)+1] = choisi % d;
+			}
+		}
+		debut[c] = c*t;
+		return new Reseau(n, d, c, x, y, debut, tuples);
+	}
+
+	/** Avance ran2 d'une instance sans la construire. */
+	void sauter(Ran2 alea) {
+		for(long k=(long) c*(t+1);k>0;k--)
+			alea.suivant();
+	}
+
+	@Override
+	public int nbReseaux() {
+		return nbInstances;
+	}
+
+	@Override
+	public Reseau lire(int i) {
+		Curseur cur = curseur.get();
+		if(cur == null) {
+			cur = new Curseur();
+			curseur.set(cur);
+		}
+		// on repart du dernier point mémorisé avant i s'il est plus près que le curseur
+		int p = i / POINTS;
+		while(!points.containsKey(p))
+			p--;
+		if(cur.alea == null || cur.suivante > i || p * POINTS > cur.suivante) {
+			cur.alea = points.get(p).copie();
+			cur.suivante = p * POINTS;
+		}
+		while(cur.suivante < i) {
+			sauter(cur.alea);
+			if(++cur.suivante % POINTS == 0)
+				points.putIfAbsent(cur.suivante / POINTS, cur.alea.copie());
+		}
+		Reseau reseau = generer(cur.alea);
+		if(++cur.suivante % POINTS == 0)
+			points.putIfAbsent(cur.suivante / POINTS, cur.alea.copie());
+		return reseau;
+	}
+
+	@Override
+	public long octets(int i) {
+		return 0;
+	}
+
+	@Override
+	public void close() {
+	}
+
+	/** Même sortie que le programme C : java GenerateurURBCSP N D C T I [S] > instances.txt */
+	public static void main(String[] args) {
+		if(args.length != 5 && args.length != 6) {
+			System.out.println("usage: GenerateurURBCSP nbVariables tailleDomaine nbConstraints nbTuples nbInstances [graine]");
+			return;
+		}
+		int a[] = new int[5];
+		for(int i=0;i<5;i++)
+			a[i] = Integer.parseInt(args[i]);
+		GenerateurURBCSP gen = new GenerateurURBCSP(a[0], a[1], a[2], a[3], a[4], args.length > 5 ? Long.parseLong(args[5]) : -1);
+		PrintWriter out = new PrintWriter(new BufferedWriter(new OutputStreamWriter(System.out), 1 << 16));
+		Ran2 alea = new Ran2(gen.graine);
+		for(int i=0;i<gen.nbInstances;i++) {
+			Reseau r = gen.generer(alea);
+			out.print(r.nbVariables+"\n"+r.tailleDom+"\n"+r.nbContraintes+"\n");
+			for(int k=0;k<r.nbContraintes;k++) {
+				out.print(r.x[k]+";"+r.y[k]+"\n"+r.nbTuples(k)+"\n");
+				for(int u=r.debut[k];u<r.debut[k+1];u++)
+					out.print(r.tuples[2*u]+";"+r.tuples[2*u+1]+"\n");
+			}
+			out.print("**************************************************\n");
+		}
+		out.flush();
+	}
+}
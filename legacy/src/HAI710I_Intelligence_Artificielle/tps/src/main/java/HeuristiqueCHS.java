@@ -0,0 +1,89 @@
+import java.util.Arrays;
+
+import org.chocosolver.solver.constraints.Propagator;
+import org.chocosolver.solver.exception.ContradictionException;
+import org.chocosolver.solver.search.loop.monitors.IMonitorContradiction;
+import org.chocosolver.solver.search.loop.monitors.IMonitorRestart;
+import org.chocosolver.solver.search.strategy.selectors.variables.VariableSelector;
+import org.chocosolver.solver.variables.IntVar;
+
+/**
+ * Heuristique de choix de variable "conflict history search" (CHS, Habet et
+ * Terrioux), absente de Choco 4.10.2.
+ *
+ * Chaque propagateur p a un score q(p) mis à jour à chaque échec dont il est
+ * la cause : q(p) = (1-alpha) q(p) + alpha / (conflits - dernierConflit(p) + 1),
+ * alpha passant de 0.4 à 0.06 par pas de 1e-6. On choisit la variable qui
+ * maximise la somme des scores de ses propagateurs encore actifs (au moins deux
+ * variables non instanciées) divisée par la taille de son domaine ; à égalité
+ * la première dans l'ordre des variables. Aux redémarrages, alpha repart de 0.4
+ * et les scores sont lissés selon leur ancienneté.
+ * Doit être branché sur le solveur (plugMonitor) pour être informé des échecs.
+ */
+public class HeuristiqueCHS implements VariableSelector<IntVar>, IMonitorContradiction, IMonitorRestart {
+
+	private static final double ALPHA_INITIAL = 0.4, ALPHA_MIN = 0.06, PAS_ALPHA = 1e-6;
+	private static final double DELTA = 1e-4;		// évite un score nul avant le premier échec
+	private static final double LISSAGE = 0.995;
+
+	private double alpha = ALPHA_INITIAL;
+	private long conflits;
+	// indexés par l'identifiant des propagateurs, agrandis au besoin
+	private double[] score = new double[64];
+	private long[] dernierConflit = new long[64];
+
+	@Override
+	public IntVar getVariable(IntVar[] variables) {
+		IntVar meilleure = null;
+		double max = -1;
+		for(IntVar v : variables) {
+			if(v.isInstantiated())
+				continue;
+			double somme = DELTA;
+			for(int i=0;i<v.getNbProps();i++) {
+				Propagator<?> p = v.getPropagator(i);
+				if(p.isActive() && libres(p) >= 2 && p.getId() < score.length)
+					somme += score[p.getId()];
+			}
+			double s = somme / v.getDomainSize();
+			if(s > max) {
+				max = s;
+				meilleure = v;
+			}
+		}
+		return meilleure;
+	}
+
+	private static int libres(Propagator<?> p) {
+		int nb = 0;
+		for(int i=0;i<p.getNbVars() && nb<2;i++)
+			if(!p.getVar(i).isInstantiated())
+				nb++;
+		return nb;
+	}
+
+	@Override
+	public void onContradiction(ContradictionException cex) {
+		conflits++;
+		if(cex.c instanceof Propagator) {
+			int id = ((Propagator<?>) cex.c).getId();
+			if(id >= score.length) {
+				int taille = Math.max(id+1, 2*score.length);
+				score = Arrays.copyOf(score, taille);
+				dernierConflit = Arrays.copyOf(dernierConflit, taille);
+			}
+			double r = 1.0 / (conflits - dernierConflit[id] + 1);
+			score[id] = (1 - alpha) * score[id] + alpha * r;
+			dernierConflit[id] = conflits;
+		}
+		alpha = Math.max(ALPHA_MIN, alpha - PAS_ALPHA);
+	}
+
+	@Override
+	public void afterRestart() {
+		alpha = ALPHA_INITIAL;
+		for(int id=0;id<score.length;id++)
+			if(score[id] != 0)
+				score[id] *= Math.pow(LISSAGE, conflits - dernierConflit[id]);
+	}
+}
@@ -0,0 +1,119 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Index des positions de chaque réseau dans un fichier bench texte.
+ * Il est construit une seule fois puis stocké à côté du fichier (bench.txt.idx),
+ * ce qui permet de relire le réseau n sans relire les n-1 précédents.
+ * L'index est reconstruit si le fichier a changé de taille ou de date.
+ *
+ * Chaque thread utilise son propre LecteurReseau : plusieurs réseaux peuvent
+ * être chargés en même temps.
+ */
+public class IndexReseaux implements SourceReseaux {
+
+	static final int MAGIE = 0x43535049;		// "CSPI"
+	static final String EXTENSION = ".idx";
+
+	private final String nomFichier;
+	private final long[] positions;				// positions[nbReseaux] est la fin du dernier réseau
+	private final List<LecteurReseau> lecteurs = new CopyOnWriteArrayList<>();
+	private final ThreadLocal<LecteurReseau> lecteur = new ThreadLocal<>();
+
+	private IndexReseaux(String nomFichier, long[] positions) {
+		this.nomFichier = nomFichier;
+		this.positions = positions;
+	}
+
+	/** Charge l'index stocké à côté du fichier, ou le construit et l'enregistre. */
+	public static IndexReseaux ouvrir(String nomFichier) throws IOException {
+		File fichier = new File(nomFichier);
+		File idx = new File(nomFichier + EXTENSION);
+		long[] positions = idx.exists() ? charger(idx, fichier) : null;
+		if(positions == null) {
+			positions = construire(nomFichier);
+			try {
+				enregistrer(idx, fichier, positions);
+			} catch(IOException e) {
+				System.out.println("Index non enregistré pour "+nomFichier+" : "+e.getMessage());
+			}
+		}
+		return new IndexReseaux(nomFichier, positions);
+	}
+
+	/** Parcourt le fichier une fois en relevant la position de début de chaque réseau. */
+	static long[] construire(String nomFichier) throws IOException {
+		long[] positions = new long[64];
+		int nb = 0;
+		try(LecteurReseau lecteur = new LecteurReseau(nomFichier)) {
+			while(lecteur.aSuivant()) {
+				if(nb+1 >= positions.length)
+					positions = Arrays.copyOf(positions, 2*positions.length);
+				positions[nb++] = lecteur.position();
+				lecteur.sauter();
+			}
+			positions[nb] = lecteur.position();
+		}
+		return Arrays.copyOf(positions, nb+1);
+	}
+
+	private static long[] charger(File idx, File fichier) throws IOException {
+		try(DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(idx)))) {
+			if(in.readInt() != MAGIE || in.readLong() != fichier.length() || in.readLong() != fichier.lastModified())
+				return null;
+			long[] positions = new long[in.readInt()+1];
+			for(int i=0;i<positions.length;i++)
+				positions[i] = in.readLong();
+			return positions;
+		}
+	}
+
+	private static void enregistrer(File idx, File fichier, long[] positions) throws IOException {
+		try(DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(idx)))) {
+			out.writeInt(MAGIE);
+			out.writeLong(fichier.length());
+			out.writeLong(fichier.lastModified());
+			out.writeInt(positions.length-1);
+			for(long p : positions)
+				out.writeLong(p);
+		}
+	}
+
+	@Override
+	public int nbReseaux() {
+		return positions.length - 1;
+	}
+
+	@Override
+	public long octets(int i) {
+		return positions[i+1] - positions[i];
+	}
+
+	@Override
+	public Reseau lire(int i) throws IOException {
+		LecteurReseau l = lecteur.get();
+		if(l == null) {
+			l = new LecteurReseau(nomFichier);
+			lecteurs.add(l);
+			lecteur.set(l);
+		}
+		l.positionner(positions[i]);
+		return l.lire();
+	}
+
+	@Override
+	public void close() throws IOException {
+		for(LecteurReseau l : lecteurs)
+			l.close();
+		lecteurs.clear();
+	}
+}
@@ -0,0 +1,160 @@
+import java.io.BufferedWriter;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Journal des résolutions : un enregistrement par Resultat, écrit en CSV (fichier
+ * .csv, séparateur ';') ou en JSON, une ligne par objet (toute autre extension,
+ * typiquement .jsonl).
+ *
+ * Les threads de résolution ne font que déposer leur Resultat dans une file
+ * bornée ; un seul thread d'écriture formate et écrit à travers un tampon. La
+ * file bornée freine les résolutions si le disque ne suit pas, au lieu de
+ * remplir la mémoire. close() attend que tout soit écrit.
+ */
+public class JournalResultats implements AutoCloseable {
+
+	static final String[] CHAMPS = {"fichier", "numero", "lecture_ns", "construction_ns", "resolution_ns",
+			"noeuds", "retours", "echecs", "alloue_octets", "statut", "strategie", "cache"};
+
+	private static final Resultat FIN = new Resultat(null, 0);
+
+	private final BlockingQueue<Resultat> file = new ArrayBlockingQueue<>(1 << 14);
+	private final Writer sortie;
+	private final boolean csv;
+	private final Thread ecrivain;
+	private volatile IOException erreur;
+
+	public JournalResultats(String nomFichier) throws IOException {
+		csv = nomFichier.endsWith(".csv");
+		sortie = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(nomFichier), StandardCharsets.UTF_8), 1 << 16);
+		if(csv)
+			sortie.write(String.join(";", CHAMPS) + "\n");
+		ecrivain = new Thread(this::ecrire, "journal-resultats");
+		ecrivain.setDaemon(true);
+		ecrivain.start();
+	}
+
+	/** Pic d'occupation des zones du tas depuis le démarrage de la JVM (tous threads confondus). */
+	static long tasMax() {
+		long total = 0;
+		for(MemoryPoolMXBean zone : ManagementFactory.getMemoryPoolMXBeans())
+			if(zone.getType() == MemoryType.HEAP)
+				total += zone.getPeakUsage().getUsed();
+		return total;
+	}
+
+	/**
+	 * Octets alloués par le thread courant depuis sa création ; la différence
+	 * entre deux appels est propre à une tâche, contrairement aux pics du tas
+	 * partagés par tous les threads. -1 si la JVM ne sait pas les compter.
+	 */
+	static long octetsAlloues() {
+		java.lang.management.ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+		if(!(threads instanceof com.sun.management.ThreadMXBean))
+			return -1;
+		return ((com.sun.management.ThreadMXBean) threads).getThreadAllocatedBytes(Thread.currentThread().getId());
+	}
+
+	/** Dépose le résultat ; n'attend que si la file est pleine. */
+	public void enregistrer(Resultat res) throws InterruptedException {
+		file.put(res);
+	}
+
+	private void ecrire() {
+		List<Resultat> lot = new ArrayList<>();
+		try {
+			while(true) {
+				lot.add(file.take());
+				file.drainTo(lot);
+				for(Resultat res : lot) {
+					if(res == FIN) {
+						sortie.flush();
+						return;
+					}
+					sortie.write(csv ? ligneCsv(res) : ligneJson(res));
+				}
+				lot.clear();
+				// on vide le tampon quand la file est vide, pour qu'un arrêt brutal perde peu
+				if(file.isEmpty())
+					sortie.flush();
+			}
+		} catch(IOException e) {
+			erreur = e;
+			// on continue de vider la file pour ne pas bloquer les résolutions
+			while(true) {
+				try {
+					if(file.take() == FIN)
+						return;
+				} catch(InterruptedException ie) {
+					return;
+				}
+			}
+		} catch(InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	static String ligneCsv(Resultat r) {
+		return String.format(Locale.ROOT, "%s;%d;%d;%d;%d;%d;%d;%d;%d;%s;%s;%b%n", champ(r.fichier), r.numero, r.tempsLecture,
+				r.tempsConstruction, r.tempsResolution, r.noeuds, r.retours, r.echecs, r.octetsAlloues, r.statut,
+				champ(r.strategie), r.depuisCache);
+	}
+
+	/** Un champ CSV : entre guillemets (doublés à l'intérieur) s'il contient ';', '"' ou une fin de ligne. */
+	private static String champ(String s) {
+		if(s == null)
+			return "";
+		if(s.indexOf(';') < 0 && s.indexOf('"') < 0 && s.indexOf('\n') < 0 && s.indexOf('\r') < 0)
+			return s;
+		return "\"" + s.replace("\"", "\"\"") + "\"";
+	}
+
+	static String ligneJson(Resultat r) {
+		return String.format(Locale.ROOT, "{\"fichier\":%s,\"numero\":%d,\"lecture_ns\":%d,\"construction_ns\":%d,"
+				+ "\"resolution_ns\":%d,\"noeuds\":%d,\"retours\":%d,\"echecs\":%d,\"alloue_octets\":%d,"
+				+ "\"statut\":\"%s\",\"strategie\":%s,\"cache\":%b}%n", chaine(r.fichier), r.numero, r.tempsLecture,
+				r.tempsConstruction, r.tempsResolution, r.noeuds, r.retours, r.echecs, r.octetsAlloues, r.statut,
+				chaine(r.strategie), r.depuisCache);
+	}
+
+	private static String chaine(String s) {
+		if(s == null)
+			return "null";
+		StringBuilder b = new StringBuilder("\"");
+		for(char c : s.toCharArray()) {
+			if(c == '"' || c == '\\')
+				b.append('\\').append(c);
+			else if(c < 0x20)
+				b.append(String.format("\\u%04x", (int) c));
+			else
+				b.append(c);
+		}
+		return b.append('"').toString();
+	}
+
+	@Override
+	public void close() throws IOException {
+		try {
+			file.put(FIN);
+			ecrivain.join();
+		} catch(InterruptedException e) {
+			// on n'attend plus l'écriture, mais l'interruption reste visible de l'appelant
+			Thread.currentThread().interrupt();
+		}
+		sortie.close();
+		if(erreur != null)
+			throw erreur;
+	}
+}
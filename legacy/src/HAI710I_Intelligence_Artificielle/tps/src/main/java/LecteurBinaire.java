@@ -0,0 +1,119 @@
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+import org.chocosolver.solver.Model;
+import org.chocosolver.solver.constraints.extension.Tuples;
+import org.chocosolver.solver.variables.IntVar;
+
+/**
+ * Lecture des fichiers produits par FormatBinaire. Le fichier est projeté en
+ * mémoire et la table des positions permet d'accéder directement à n'importe
+ * quel réseau ; le modèle Choco est construit en lisant le tampon projeté.
+ * Chaque lecture travaille sur sa propre vue du tampon : plusieurs threads
+ * peuvent lire des réseaux différents en même temps.
+ */
+public class LecteurBinaire implements SourceReseaux {
+
+	private final RandomAccessFile fichier;
+	private final FileChannel canal;
+	private final long[] positions;
+	private final MappedByteBuffer tampon;		// tout le fichier s'il tient dans une projection, null sinon
+
+	public LecteurBinaire(String nomFichier) throws IOException {
+		fichier = new RandomAccessFile(nomFichier, "r");
+		canal = fichier.getChannel();
+		MappedByteBuffer entete = canal.map(FileChannel.MapMode.READ_ONLY, 0, FormatBinaire.TAILLE_ENTETE);
+		if(entete.getInt() != FormatBinaire.MAGIE)
+			throw new IOException(nomFichier+" n'est pas un fichier bench binaire");
+		int version = entete.getInt();
+		if(version != FormatBinaire.VERSION)
+			throw new IOException("Version de format binaire non supportée : "+version);
+		int nbReseaux = entete.getInt();
+		long table = entete.getLong();
+		positions = new long[nbReseaux+1];
+		canal.map(FileChannel.MapMode.READ_ONLY, table, 8L*(nbReseaux+1)).asLongBuffer().get(positions);
+		tampon = table <= Integer.MAX_VALUE ? canal.map(FileChannel.MapMode.READ_ONLY, 0, table) : null;
+	}
+
+	@Override
+	public int nbReseaux() {
+		return positions.length - 1;
+	}
+
+	@Override
+	public long octets(int i) {
+		return positions[i+1] - positions[i];
+	}
+
+	/** Une vue du fichier positionnée au début du réseau i. */
+	private ByteBuffer projeter(int i) throws IOException {
+		if(tampon == null)
+			return canal.map(FileChannel.MapMode.READ_ONLY, positions[i], octets(i));
+		ByteBuffer b = tampon.duplicate();
+		b.position((int) positions[i]);
+		return b;
+	}
+
+	private static int valeur(ByteBuffer b, int largeur) {
+		switch(largeur) {
+			case 1 : return b.get() & 0xFF;
+			case 2 : return b.getShort() & 0xFFFF;
+			default : return b.getInt();
+		}
+	}
+
+	/** Construit le modèle du réseau i (numéroté à partir de 0) directement depuis le tampon. */
+	@Override
+	public Model construireModele(int i) throws IOException {
+		ByteBuffer b = projeter(i);
+		Model model = new Model("Expe");
+		int nbVariables = b.getInt();
+		int tailleDom = b.getInt();
+		int nbContraintes = b.getInt();
+		int largeur = b.getInt();
+		IntVar []var = model.intVarArray("x",nbVariables,0,tailleDom-1);
+		for(int k=0;k<nbContraintes;k++) {
+			IntVar portee[] = new IntVar[]{var[b.getInt()],var[b.getInt()]};
+			int t[][] = new int[b.getInt()][];
+			for(int n=0;n<t.length;n++)
+				t[n] = new int[]{valeur(b, largeur), valeur(b, largeur)};
+			model.table(portee,new Tuples(t,true)).post();
+		}
+		return model;
+	}
+
+	/** Lit le réseau i sous forme primitive. */
+	@Override
+	public Reseau lire(int i) throws IOException {
+		ByteBuffer b = projeter(i);
+		int nbVariables = b.getInt();
+		int tailleDom = b.getInt();
+		int nbContraintes = b.getInt();
+		int largeur = b.getInt();
+		int x[] = new int[nbContraintes];
+		int y[] = new int[nbContraintes];
+		int debut[] = new int[nbContraintes+1];
+		long taille = positions[i+1] - positions[i] - 16 - 12L*nbContraintes;
+		int tuples[] = new int[(int) (taille / largeur)];
+		int nb = 0;
+		for(int k=0;k<nbContraintes;k++) {
+			x[k] = b.getInt();
+			y[k] = b.getInt();
+			int nbTuples = b.getInt();
+			for(int t=0;t<2*nbTuples;t++)
+				tuples[2*nb+t] = valeur(b, largeur);
+			nb += nbTuples;
+			debut[k+1] = nb;
+		}
+		return new Reseau(nbVariables, tailleDom, nbContraintes, x, y, debut, tuples);
+	}
+
+	@Override
+	public void close() throws IOException {
+		canal.close();
+		fichier.close();
+	}
+}
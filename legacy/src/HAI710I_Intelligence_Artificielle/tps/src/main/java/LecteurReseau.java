@@ -0,0 +1,145 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+
+/**
+ * Lecture des fichiers bench par projection mémoire (FileChannel.map).
+ * Les octets sont parcourus directement et convertis en entiers sans passer
+ * par des String : aucune allocation par tuple, seuls les tableaux du Reseau
+ * sont alloués.
+ * Le fichier est projeté par fenêtres successives, ce qui permet de lire des
+ * fichiers de plus de 2 Go.
+ */
+public class LecteurReseau implements Closeable {
+
+	private static final long FENETRE = 1L << 26;		// 64 Mo projetés à la fois
+
+	private final RandomAccessFile fichier;
+	private final FileChannel canal;
+	private final long taille;
+	private MappedByteBuffer tampon;
+	private long base;			// position dans le fichier du début de la fenêtre
+	private int limite;			// taille de la fenêtre courante
+	private long position;		// position courante dans le fichier
+
+	public LecteurReseau(String nomFichier) throws IOException {
+		fichier = new RandomAccessFile(nomFichier, "r");
+		canal = fichier.getChannel();
+		taille = canal.size();
+		projeter(0);
+	}
+
+	private void projeter(long debut) throws IOException {
+		base = debut;
+		limite = (int) Math.min(FENETRE, taille - debut);
+		tampon = canal.map(FileChannel.MapMode.READ_ONLY, base, limite);
+	}
+
+	/** L'octet courant, ou -1 en fin de fichier ; ne consomme rien. */
+	private int octet() throws IOException {
+		if(position >= taille)
+			return -1;
+		if(position < base || position - base >= limite)
+			projeter(position);
+		return tampon.get((int) (position - base));
+	}
+
+	private static boolean chiffre(int c) {
+		return c >= '0' && c <= '9';
+	}
+
+	/** Saute les séparateurs (';', fins de ligne, ligne d'étoiles). */
+	private void sauterSeparateurs() throws IOException {
+		int c;
+		while((c = octet()) != -1 && !chiffre(c) && c != '-')
+			position++;
+	}
+
+	private int lireEntier() throws IOException {
+		sauterSeparateurs();
+		boolean negatif = false;
+		if(octet() == '-') {
+			negatif = true;
+			position++;
+		}
+		int c = octet();
+		if(!chiffre(c))
+			throw new IOException("Entier attendu à l'octet "+position);
+		int n = 0;
+		while(chiffre(c)) {
+			n = n*10 + (c - '0');
+			position++;
+			c = octet();
+		}
+		return negatif ? -n : n;
+	}
+
+	/** Vrai s'il reste un réseau à lire après la position courante. */
+	public boolean aSuivant() throws IOException {
+		sauterSeparateurs();
+		return position < taille;
+	}
+
+	public Reseau lire() throws IOException {
+		int nbVariables = lireEntier();
+		int tailleDom = lireEntier();
+		int nbContraintes = lireEntier();
+		int x[] = new int[nbContraintes];
+		int y[] = new int[nbContraintes];
+		int debut[] = new int[nbContraintes+1];
+		int tuples[] = new int[2*Math.max(16, nbContraintes*tailleDom)];
+		int nb = 0;
+		for(int k=0;k<nbContraintes;k++) {
+			x[k] = lireEntier();
+			y[k] = lireEntier();
+			int nbTuples = lireEntier();
+			if(2*(nb+nbTuples) > tuples.length)
+				tuples = Arrays.copyOf(tuples, Math.max(2*tuples.length, 2*(nb+nbTuples)));
+			for(int t=0;t<nbTuples;t++) {
+				tuples[2*nb] = lireEntier();
+				tuples[2*nb+1] = lireEntier();
+				nb++;
+			}
+			debut[k+1] = nb;
+		}
+		return new Reseau(nbVariables, tailleDom, nbContraintes, x, y, debut, Arrays.copyOf(tuples, 2*nb));
+	}
+
+	/** Passe le réseau courant sans le stocker (utilisé pour construire l'index). */
+	public void sauter() throws IOException {
+		lireEntier();
+		lireEntier();
+		int nbContraintes = lireEntier();
+		for(int k=0;k<nbContraintes;k++) {
+			lireEntier();
+			lireEntier();
+			int nbTuples = lireEntier();
+			for(int t=0;t<2*nbTuples;t++)
+				lireEntier();
+		}
+	}
+
+	/** Se place à une position du fichier, par exemple lue dans un IndexReseaux. */
+	public void positionner(long position) {
+		this.position = position;
+	}
+
+	/** Position courante dans le fichier, en octets. */
+	public long position() {
+		return position;
+	}
+
+	public long taille() {
+		return taille;
+	}
+
+	@Override
+	public void close() throws IOException {
+		tampon = null;
+		canal.close();
+		fichier.close();
+	}
+}
@@ -0,0 +1,30 @@
+/**
+ * Un moteur de résolution pour les réseaux des fichiers bench.
+ * Expe l'appelle depuis plusieurs threads à la fois : une implémentation ne
+ * doit pas partager d'état de recherche entre deux appels.
+ */
+public interface Moteur extends AutoCloseable {
+
+	String nom();
+
+	/** Tout ce qui peut changer le résultat d'une résolution (moteur, stratégies...) ; sert de clé au CacheResultats. */
+	default String configuration() {
+		return nom();
+	}
+
+	/**
+	 * Le même moteur avec ses graines décalées de decalage, pour qu'un nouvel
+	 * essai au même budget ne refasse pas la même recherche ; null si le moteur
+	 * est déterministe. La configuration doit changer avec la graine.
+	 */
+	default Moteur varier(long decalage) {
+		return null;
+	}
+
+	/** Résout le réseau en au plus limiteMs millisecondes et complète res (statut, noeuds...). */
+	void resoudre(Reseau reseau, long limiteMs, Resultat res);
+
+	@Override
+	default void close() {
+	}
+}
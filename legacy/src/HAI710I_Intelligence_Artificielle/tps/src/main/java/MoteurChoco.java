@@ -0,0 +1,110 @@
+import java.util.Map;
+import java.util.function.Consumer;
+
+import org.chocosolver.solver.Model;
+import org.chocosolver.solver.Solver;
+import org.chocosolver.solver.variables.IntVar;
+
+/**
+ * Résolution d'un réseau avec un seul solveur Choco (model.getSolver().solve()).
+ * Avec gabarit, chaque thread garde son GabaritModele et n'alloue plus un
+ * modèle complet par réseau. Avec reecrire, les tables qui ne sont qu'une
+ * égalité, une différence, un décalage ou une distance sont remplacées par la
+ * contrainte arithmétique équivalente (ReecritureTables) avant la résolution.
+ */
+public class MoteurChoco implements Moteur {
+
+	private final StrategieRecherche strategie;
+	private final ThreadLocal<GabaritModele> gabarits;
+	private final boolean reecrire;
+
+	public MoteurChoco(StrategieRecherche strategie) {
+		this(strategie, false);
+	}
+
+	public MoteurChoco(StrategieRecherche strategie, boolean gabarit) {
+		this(strategie, gabarit, false);
+	}
+
+	public MoteurChoco(StrategieRecherche strategie, boolean gabarit, boolean reecrire) {
+		this(strategie, gabarit ? ThreadLocal.withInitial(GabaritModele::new) : null, reecrire);
+	}
+
+	private MoteurChoco(StrategieRecherche strategie, ThreadLocal<GabaritModele> gabarits, boolean reecrire) {
+		this.strategie = strategie;
+		this.gabarits = gabarits;
+		this.reecrire = reecrire;
+	}
+
+	@Override
+	public Moteur varier(long decalage) {
+		StrategieRecherche variee = strategie.varier(decalage);
+		// les gabarits restent ceux du moteur d'origine : ils ne dépendent pas de la stratégie
+		return variee == null ? null : new MoteurChoco(variee, gabarits, reecrire);
+	}
+
+	@Override
+	public String nom() {
+		return "choco";
+	}
+
+	@Override
+	public String configuration() {
+		return "choco:"+strategie.nom+(reecrire ? "/reecrire" : "");
+	}
+
+	/** Les valeurs des n premières variables du modèle (les x de Reseau.construireModele). */
+	static int[] valeurs(Model model, int n) {
+		IntVar vars[] = model.retrieveIntVars(true);
+		int solution[] = new int[n];
+		for(int i=0;i<n;i++)
+			solution[i] = vars[i].getValue();
+		return solution;
+	}
+
+	@Override
+	public void resoudre(Reseau reseau, long limiteMs, Resultat res) {
+		long t0 = System.nanoTime();
+		// la réécriture passe par le gabarit, qui doit compter les propagateurs qu'elle pose
+		Consumer<Model> reecriture = !reecrire ? null : m -> {
+			Map<ReecritureTables.Forme, Integer> nombres = ReecritureTables.reecrire(m);
+			// chaque réécriture est déjà tracée en verbosité modele ; le bilan ne s'affiche que s'il y en a eu
+			if(!nombres.isEmpty())
+				Trace.instance(Trace.Niveau.INSTANCE, res.numero, () -> "Réseau "+res.numero+" : tables réécrites : "+ReecritureTables.bilan(nombres));
+		};
+		Model model;
+		if(gabarits != null)
+			model = gabarits.get().modele(reseau, reecriture);
+		else {
+			model = reseau.construireModele();
+			if(reecriture != null)
+				reecriture.accept(model);
+		}
+		res.tempsConstruction = System.nanoTime() - t0;
+		// le modèle n'est rendu en chaîne qu'en verbosité modele
+		Trace.instance(Trace.Niveau.MODELE, res.numero, () -> "Réseau lu dans "+res.fichier+" numero "+res.numero+" :\n"+model+"\n\n");
+
+		strategie.appliquer(model);
+		Solver solver = model.getSolver();
+		solver.limitTime(limiteMs);
+		// Calcul de la première solution
+		if(solver.solve()) {
+			// System.out.println("\n\n*** Première solution ***");
+			// System.out.println(model);
+			res.statut = Resultat.Statut.SATISFIABLE;
+			res.solution = valeurs(model, reseau.nbVariables);
+		} else if (solver.isStopCriterionMet()) {
+			res.statut = Resultat.Statut.INCONNU;
+		} else {
+			res.statut = Resultat.Statut.INSATISFIABLE;
+		}
+		res.noeuds = solver.getNodeCount();
+		res.retours = solver.getBackTrackCount();
+		res.echecs = solver.getFailCount();
+		res.strategie = strategie.nom;
+
+		// Affichage de l'ensemble des caractéristiques de résolution
+		// System.out.println("\n\n*** Bilan ***");
+		// solver.printStatistics();
+	}
+}
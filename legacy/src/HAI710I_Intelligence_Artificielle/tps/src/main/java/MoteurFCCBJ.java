@@ -0,0 +1,250 @@
+/**
+ * Forward checking avec retour arrière dirigé par les conflits (FC-CBJ, Prosser 1993),
+ * sur la même représentation Reseau que MoteurMAC.
+ *
+ * Chaque niveau i de l'arbre garde son ensemble de conflits conf[i] et chaque
+ * variable x l'ensemble passeFc[x] des niveaux dont le forward checking a réduit
+ * son domaine. Quand le domaine de la variable du niveau i est épuisé, on remonte
+ * directement au niveau h le plus profond de conf[i] ∪ passeFc[x] au lieu de
+ * i-1. Les ensembles de niveaux sont des bitsets de long.
+ *
+ * Avec sautArriere = false, le même moteur fait un forward checking
+ * chronologique (h = i-1), ce qui permet de mesurer ce que gagne le saut arrière.
+ * Ordre des variables : plus petit domaine courant (dom).
+ */
+public class MoteurFCCBJ implements Moteur {
+
+	private final boolean sautArriere;
+
+	public MoteurFCCBJ(boolean sautArriere) {
+		this.sautArriere = sautArriere;
+	}
+
+	@Override
+	public String nom() {
+		return sautArriere ? "fccbj" : "fc";
+	}
+
+	@Override
+	public void resoudre(Reseau reseau, long limiteMs, Resultat res) {
+		long t0 = System.nanoTime();
+		Resolution r = new Resolution(reseau, sautArriere);
+		res.tempsConstruction = System.nanoTime() - t0;
+		res.statut = r.chercher(System.nanoTime() + limiteMs * 1_000_000L);
+		res.noeuds = r.noeuds;
+		res.retours = r.retours;
+		res.echecs = r.echecs;
+		if(res.statut == Resultat.Statut.SATISFIABLE) {
+			res.solution = new int[r.n];
+			for(int x=0;x<r.n;x++)
+				res.solution[x] = r.valeur[r.niveau[x]];
+		}
+		res.strategie = nom() + "-dom";
+	}
+
+	static final class Resolution {
+
+		static final int PRESENTE = -1;
+
+		final boolean sautArriere;
+		final int n, d, mots;
+		final int[] cx, cy;
+		final long[][] relation;		// bit a*d+b si (a,b) est autorisé
+		final int[][] voisins;
+		// retire[x*d+a] : niveau qui a retiré a du domaine de x (PRESENTE sinon) ;
+		// quand c'est le niveau de x lui-même, a a été essayée puis rejetée
+		final int[] retire;
+		final int[] taille;
+		final int[] niveau;				// niveau de la variable, -1 si elle est future
+		final int[] ordre, valeur;		// variable et valeur de chaque niveau
+		final long[][] conf;			// conf[i] : ensemble de niveaux
+		final long[][] passeFc;			// passeFc[x] : ensemble de niveaux
+		// réductions du forward checking, dans l'ordre des niveaux
+		final int[] pileVar, pileVal, marque;
+		int sommetPile;
+		long noeuds, retours, echecs;
+
+		Resolution(Reseau reseau, boolean sautArriere) {
+			this.sautArriere = sautArriere;
+			n = reseau.nbVariables;
+			d = reseau.tailleDom;
+			mots = (n + 63) >>> 6;
+			int m = reseau.nbContraintes;
+			cx = reseau.x;
+			cy = reseau.y;
+			relation = new long[m][(d*d + 63) >>> 6];
+			int degre[] = new int[n];
+			for(int c=0;c<m;c++) {
+				for(int t=reseau.debut[c];t<reseau.debut[c+1];t++) {
+					int bit = reseau.tuples[2*t]*d + reseau.tuples[2*t+1];
+					relation[c][bit >>> 6] |= 1L << bit;
+				}
+				degre[cx[c]]++;
+				degre[cy[c]]++;
+			}
+			voisins = new int[n][];
+			for(int x=0;x<n;x++)
+				voisins[x] = new int[degre[x]];
+			for(int c=m-1;c>=0;c--) {
+				voisins[cx[c]][--degre[cx[c]]] = c;
+				voisins[cy[c]][--degre[cy[c]]] = c;
+			}
+			retire = new int[n*d];
+			java.util.Arrays.fill(retire, PRESENTE);
+			taille = new int[n];
+			java.util.Arrays.fill(taille, d);
+			niveau = new int[n];
+			java.util.Arrays.fill(niveau, -1);
+			ordre = new int[n];
+			valeur = new int[n];
+			conf = new long[n][mots];
+			passeFc = new long[n][mots];
+			pileVar = new int[n*d];
+			pileVal = new int[n*d];
+			marque = new int[n+1];
+		}
+
+		boolean autorise(int c, int a, int b) {
+			int bit = a*d + b;
+			return (relation[c][bit >>> 6] & (1L << bit)) != 0;
+		}
+
+		static int plusGrand(long[] ensemble) {
+			for(int w=ensemble.length-1;w>=0;w--)
+				if(ensemble[w] != 0)
+					return (w << 6) + 63 - Long.numberOfLeadingZeros(ensemble[w]);
+			return -1;
+		}
+
+		/** Annule les réductions faites par les niveaux >= i. */
+		void defaire(int i) {
+			while(sommetPile > marque[i]) {
+				sommetPile--;
+				int y = pileVar[sommetPile], b = pileVal[sommetPile];
+				int l = retire[y*d+b];
+				passeFc[y][l >>> 6] &= ~(1L << l);
+				retire[y*d+b] = PRESENTE;
+				taille[y]++;
+			}
+		}
+
+		/** Filtre les domaines des variables futures liées à x ; rend la variable vidée ou -1. */
+		int verifierEnAvant(int i, int x, int a) {
+			for(int c : voisins[x]) {
+				boolean estX = cx[c] == x;
+				int y = estX ? cy[c] : cx[c];
+				if(niveau[y] >= 0)
+					continue;
+				boolean reduit = false;
+				for(int b=0;b<d;b++) {
+					if(retire[y*d+b] != PRESENTE)
+						continue;
+					if(estX ? autorise(c, a, b) : autorise(c, b, a))
+						continue;
+					retire[y*d+b] = i;
+					taille[y]--;
+					pileVar[sommetPile] = y;
+					pileVal[sommetPile++] = b;
+					reduit = true;
+				}
+				if(reduit)
+					passeFc[y][i >>> 6] |= 1L << i;
+				if(taille[y] == 0)
+					return y;
+			}
+			return -1;
+		}
+
+		/** Essaie les valeurs restantes de la variable du niveau i ; vrai si l'une passe le forward checking. */
+		boolean etiqueter(int i) {
+			int x = ordre[i];
+			for(int a=0;a<d;a++) {
+				if(retire[x*d+a] != PRESENTE)
+					continue;
+				noeuds++;
+				valeur[i] = a;
+				marque[i] = sommetPile;
+				int vide = verifierEnAvant(i, x, a);
+				if(vide < 0)
+					return true;
+				echecs++;
+				retire[x*d+a] = i;
+				taille[x]--;
+				defaire(i);
+				for(int w=0;w<mots;w++)
+					conf[i][w] |= passeFc[vide][w];
+			}
+			return false;
+		}
+
+		/** Remonte depuis le niveau i dont le domaine est épuisé ; rend le niveau h atteint, ou -1. */
+		int desetiqueter(int i) {
+			int x = ordre[i];
+			int h;
+			if(sautArriere) {
+				for(int w=0;w<mots;w++)
+					conf[i][w] |= passeFc[x][w];
+				h = plusGrand(conf[i]);
+				if(h >= 0) {
+					for(int w=0;w<mots;w++)
+						conf[h][w] |= conf[i][w];
+					conf[h][h >>> 6] &= ~(1L << h);
+				}
+			} else {
+				h = i - 1;
+			}
+			if(h < 0)
+				return -1;
+			for(int j=i;j>h;j--) {
+				java.util.Arrays.fill(conf[j], 0);
+				int y = ordre[j];
+				// les valeurs rejetées au niveau j redeviennent disponibles
+				for(int b=0;b<d;b++) {
+					if(retire[y*d+b] == j) {
+						retire[y*d+b] = PRESENTE;
+						taille[y]++;
+					}
+				}
+				niveau[y] = -1;
+			}
+			defaire(h);
+			int xh = ordre[h];
+			retire[xh*d+valeur[h]] = h;
+			taille[xh]--;
+			return h;
+		}
+
+		int choisirVariable() {
+			int meilleure = -1;
+			for(int x=0;x<n;x++)
+				if(niveau[x] < 0 && (meilleure < 0 || taille[x] < taille[meilleure]))
+					meilleure = x;
+			return meilleure;
+		}
+
+		Resultat.Statut chercher(long echeance) {
+			if(n == 0)
+				return Resultat.Statut.SATISFIABLE;
+			int i = 0;
+			ordre[0] = choisirVariable();
+			niveau[ordre[0]] = 0;
+			// etiqueter avance noeuds de plusieurs valeurs : l'horloge suit son propre compteur
+			long tours = 0;
+			while(true) {
+				if((++tours & 1023) == 0 && System.nanoTime() > echeance)
+					return Resultat.Statut.INCONNU;
+				if(etiqueter(i)) {
+					if(++i == n)
+						return Resultat.Statut.SATISFIABLE;
+					ordre[i] = choisirVariable();
+					niveau[ordre[i]] = i;
+				} else {
+					retours++;
+					i = desetiqueter(i);
+					if(i < 0)
+						return Resultat.Statut.INSATISFIABLE;
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,285 @@
+/**
+ * Moteur de résolution propre aux réseaux binaires des fichiers bench :
+ * maintien de l'arc-cohérence pendant la recherche (MAC).
+ *
+ * - révision à la AC-2001 : pour chaque valeur on garde le dernier support
+ *   trouvé (résidu) et on reprend la recherche juste après lui ; les résidus
+ *   restent valides après un retour arrière et n'ont pas besoin d'être sauvegardés ;
+ * - domaines en "sparse sets" dans des tableaux primitifs : retirer une valeur
+ *   est un échange, et restaurer un domaine revient à remettre sa taille ;
+ * - la pile de restauration est allouée une fois pour toutes (au plus n*d retraits
+ *   sur une branche) : aucune allocation pendant la recherche ;
+ * - branchement binaire x=a / x!=a avec l'heuristique dom/wdeg.
+ */
+public class MoteurMAC implements Moteur {
+
+	@Override
+	public String nom() {
+		return "mac";
+	}
+
+	@Override
+	public void resoudre(Reseau reseau, long limiteMs, Resultat res) {
+		long t0 = System.nanoTime();
+		Resolution r = new Resolution(reseau);
+		res.tempsConstruction = System.nanoTime() - t0;
+		res.statut = r.chercher(System.nanoTime() + limiteMs * 1_000_000L);
+		res.noeuds = r.noeuds;
+		res.retours = r.retours;
+		res.echecs = r.echecs;
+		if(res.statut == Resultat.Statut.SATISFIABLE) {
+			res.solution = new int[r.n];
+			for(int x=0;x<r.n;x++)
+				res.solution[x] = r.valeurs[x*r.d];
+		}
+		res.strategie = "mac-domwdeg";
+	}
+
+	/** L'état d'une résolution : tout est alloué dans le constructeur. */
+	static final class Resolution {
+
+		final int n, d;
+		// domaines : les valeurs de x sont valeurs[x*d .. x*d+taille[x]-1]
+		final int[] valeurs, position, taille;
+		// contraintes : relation[c] contient le bit a*d+b si (a,b) est autorisé
+		final int[] cx, cy;
+		final long[][] relation;
+		final int[] residus;			// residus[(2*c+sens)*d + a]
+		final int[][] voisins;			// voisins[x] : les contraintes portant sur x
+		final int[] poids;				// poids de chaque contrainte pour dom/wdeg
+		// pile de restauration : (variable, taille avant le retrait)
+		final int[] pileVar, pileTaille;
+		int sommetPile;
+		// file de propagation des variables modifiées
+		final int[] file;
+		final boolean[] dansFile;
+		int teteFile, nbFile;
+		// décisions de la branche courante
+		final int[] decVar, decVal, decMarque;
+		int profondeur;
+		long noeuds, retours, echecs;
+
+		Resolution(Reseau reseau) {
+			n = reseau.nbVariables;
+			d = reseau.tailleDom;
+			valeurs = new int[n*d];
+			position = new int[n*d];
+			taille = new int[n];
+			for(int x=0;x<n;x++) {
+				for(int a=0;a<d;a++) {
+					valeurs[x*d+a] = a;
+					position[x*d+a] = a;
+				}
+				taille[x] = d;
+			}
+			int m = reseau.nbContraintes;
+			cx = reseau.x;
+			cy = reseau.y;
+			relation = new long[m][(d*d + 63) >>> 6];
+			int degre[] = new int[n];
+			for(int c=0;c<m;c++) {
+				for(int t=reseau.debut[c];t<reseau.debut[c+1];t++) {
+					int bit = reseau.tuples[2*t]*d + reseau.tuples[2*t+1];
+					relation[c][bit >>> 6] |= 1L << bit;
+				}
+				degre[cx[c]]++;
+				degre[cy[c]]++;
+			}
+			voisins = new int[n][];
+			for(int x=0;x<n;x++)
+				voisins[x] = new int[degre[x]];
+			for(int c=m-1;c>=0;c--) {
+				voisins[cx[c]][--degre[cx[c]]] = c;
+				voisins[cy[c]][--degre[cy[c]]] = c;
+			}
+			residus = new int[2*m*d];
+			poids = new int[m];
+			java.util.Arrays.fill(poids, 1);
+			pileVar = new int[n*d];
+			pileTaille = new int[n*d];
+			file = new int[n];
+			dansFile = new boolean[n];
+			decVar = new int[n+1];
+			decVal = new int[n+1];
+			decMarque = new int[n+1];
+		}
+
+		boolean contient(int x, int a) {
+			return position[x*d+a] < taille[x];
+		}
+
+		boolean autorise(int c, int a, int b) {
+			int bit = a*d + b;
+			return (relation[c][bit >>> 6] & (1L << bit)) != 0;
+		}
+
+		void retirer(int x, int a) {
+			int t = --taille[x];
+			int pa = position[x*d+a];
+			int b = valeurs[x*d+t];
+			valeurs[x*d+pa] = b;
+			position[x*d+b] = pa;
+			valeurs[x*d+t] = a;
+			position[x*d+a] = t;
+			pileVar[sommetPile] = x;
+			pileTaille[sommetPile++] = t+1;
+		}
+
+		/** Réduit le domaine de x à {a}. */
+		void affecter(int x, int a) {
+			// placer a en tête puis ramener la taille à 1 en une seule entrée de pile
+			int pa = position[x*d+a];
+			int b = valeurs[x*d];
+			valeurs[x*d] = a;
+			position[x*d+a] = 0;
+			valeurs[x*d+pa] = b;
+			position[x*d+b] = pa;
+			pileVar[sommetPile] = x;
+			pileTaille[sommetPile++] = taille[x];
+			taille[x] = 1;
+		}
+
+		void restaurer(int marque) {
+			while(sommetPile > marque) {
+				sommetPile--;
+				taille[pileVar[sommetPile]] = pileTaille[sommetPile];
+			}
+		}
+
+		void enfiler(int x) {
+			if(!dansFile[x]) {
+				dansFile[x] = true;
+				file[(teteFile + nbFile++) % n] = x;
+			}
+		}
+
+		void viderFile() {
+			while(nbFile > 0) {
+				dansFile[file[teteFile]] = false;
+				teteFile = (teteFile + 1) % n;
+				nbFile--;
+			}
+		}
+
+		/**
+		 * Révise le domaine de la variable du côté "sens" (0 : x, 1 : y) de la
+		 * contrainte c ; rend faux si ce domaine devient vide.
+		 */
+		boolean reviser(int c, int sens) {
+			int x = sens == 0 ? cx[c] : cy[c];
+			int y = sens == 0 ? cy[c] : cx[c];
+			int base = (2*c + sens) * d;
+			int avant = taille[x];
+			for(int i=taille[x]-1;i>=0;i--) {
+				int a = valeurs[x*d+i];
+				int r = residus[base+a];
+				if(contient(y, r) && (sens == 0 ? autorise(c, a, r) : autorise(c, r, a)))
+					continue;
+				// AC-2001 : on cherche le support suivant à partir du résidu, en bouclant
+				int support = -1;
+				for(int k=1;k<=d;k++) {
+					int b = r + k < d ? r + k : r + k - d;
+					if(contient(y, b) && (sens == 0 ? autorise(c, a, b) : autorise(c, b, a))) {
+						support = b;
+						break;
+					}
+				}
+				if(support >= 0)
+					residus[base+a] = support;
+				else
+					retirer(x, a);
+			}
+			if(taille[x] == 0) {
+				echecs++;
+				poids[c]++;
+				return false;
+			}
+			if(taille[x] != avant)
+				enfiler(x);
+			return true;
+		}
+
+		boolean propager() {
+			while(nbFile > 0) {
+				int y = file[teteFile];
+				teteFile = (teteFile + 1) % n;
+				nbFile--;
+				dansFile[y] = false;
+				for(int c : voisins[y]) {
+					// on révise l'autre variable de la contrainte par rapport à y
+					boolean ok = cx[c] == y ? reviser(c, 1) : reviser(c, 0);
+					if(!ok) {
+						viderFile();
+						return false;
+					}
+				}
+			}
+			return true;
+		}
+
+		/** dom/wdeg : plus petit rapport taille / somme des poids des contraintes actives. */
+		int choisirVariable() {
+			int meilleure = -1;
+			long num = 1, den = 0;
+			for(int x=0;x<n;x++) {
+				if(taille[x] <= 1)
+					continue;
+				long w = 1;
+				for(int c : voisins[x]) {
+					int autre = cx[c] == x ? cy[c] : cx[c];
+					if(taille[autre] > 1)
+						w += poids[c];
+				}
+				// taille[x]/w < num/den
+				if(meilleure < 0 || taille[x] * den < num * w) {
+					meilleure = x;
+					num = taille[x];
+					den = w;
+				}
+			}
+			return meilleure;
+		}
+
+		int plusPetiteValeur(int x) {
+			int min = Integer.MAX_VALUE;
+			for(int i=0;i<taille[x];i++)
+				min = Math.min(min, valeurs[x*d+i]);
+			return min;
+		}
+
+		Resultat.Statut chercher(long echeance) {
+			for(int x=0;x<n;x++)
+				enfiler(x);
+			boolean coherent = propager();
+			while(true) {
+				if(coherent) {
+					int x = choisirVariable();
+					if(x < 0)
+						return Resultat.Statut.SATISFIABLE;
+					if((++noeuds & 1023) == 0 && System.nanoTime() > echeance)
+						return Resultat.Statut.INCONNU;
+					int a = plusPetiteValeur(x);
+					decVar[profondeur] = x;
+					decVal[profondeur] = a;
+					decMarque[profondeur++] = sommetPile;
+					affecter(x, a);
+					enfiler(x);
+					coherent = propager();
+				} else {
+					// retour arrière : on réfute la dernière décision x=a par x!=a
+					if(profondeur == 0)
+						return Resultat.Statut.INSATISFIABLE;
+					retours++;
+					profondeur--;
+					int x = decVar[profondeur];
+					restaurer(decMarque[profondeur]);
+					retirer(x, decVal[profondeur]);
+					if(taille[x] == 0)
+						continue;
+					enfiler(x);
+					coherent = propager();
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,270 @@
+import java.util.SplittableRandom;
+
+/**
+ * Recherche locale min-conflicts sur les réseaux binaires des fichiers bench,
+ * pour les grands réseaux satisfiables que la recherche complète n'atteint pas.
+ * Elle ne prouve jamais l'absence de solution : le statut est SATISFIABLE ou
+ * INCONNU.
+ *
+ * - conf[x*d+a] : nombre de contraintes de x violées si x prenait la valeur a,
+ *   les autres variables gardant la leur ; changer la valeur d'une variable met
+ *   à jour ses voisines en O(degré * d), et le nombre total de contraintes
+ *   violées en O(1) ;
+ * - relations en bitsets comme dans MoteurMAC ;
+ * - les variables en conflit forment un "sparse set" exact : en tirer une au
+ *   hasard est en O(1) ;
+ * - affectation initiale gloutonne (chaque variable, dans un ordre aléatoire,
+ *   prend la valeur la moins en conflit avec celles déjà affectées) ;
+ * - mouvement (Galinier et Hao) : parmi les variables en conflit (ou
+ *   ECHANTILLON d'entre elles tirées au hasard s'il y en a plus), le couple
+ *   (variable, nouvelle valeur) qui diminue le plus les violations ; revenir à
+ *   la valeur quittée est tabou pendant TABU mouvements, sauf si cela fait
+ *   mieux que tout ce qui a été vu. Avec la probabilité MARCHE, une variable
+ *   en conflit prend une valeur au hasard ;
+ * - redémarrage par une nouvelle affectation gloutonne si le nombre de
+ *   contraintes violées n'a pas diminué depuis longtemps.
+ *
+ * noeuds compte les mouvements, retours les redémarrages.
+ */
+public class MoteurMinConflits implements Moteur {
+
+	static final int TABU = 10;
+	static final int ECHANTILLON = 16;
+	static final double MARCHE = 0.02;
+
+	private final long graine;
+
+	public MoteurMinConflits(long graine) {
+		this.graine = graine;
+	}
+
+	@Override
+	public String nom() {
+		return "minconflits";
+	}
+
+	@Override
+	public String configuration() {
+		return "minconflits:"+graine;
+	}
+
+	@Override
+	public Moteur varier(long decalage) {
+		return new MoteurMinConflits(graine + decalage);
+	}
+
+	@Override
+	public void resoudre(Reseau reseau, long limiteMs, Resultat res) {
+		long t0 = System.nanoTime();
+		Recherche r = new Recherche(reseau, graine);
+		res.tempsConstruction = System.nanoTime() - t0;
+		res.statut = r.chercher(System.nanoTime() + limiteMs * 1_000_000L) ? Resultat.Statut.SATISFIABLE : Resultat.Statut.INCONNU;
+		res.noeuds = r.mouvements;
+		res.retours = r.redemarrages;
+		if(res.statut == Resultat.Statut.SATISFIABLE)
+			res.solution = r.val.clone();
+		res.strategie = "minconflits";
+	}
+
+	/** L'état d'une recherche : tout est alloué dans le constructeur. */
+	static final class Recherche {
+
+		final int n, d;
+		// contraintes : relation[c] contient le bit a*d+b si (a,b) est autorisé
+		final int[] cx, cy;
+		final long[][] relation;
+		final int[][] voisins;			// voisins[x] : les contraintes portant sur x
+		final int[] val;				// valeur courante, -1 si pas encore affectée
+		final int[] conf;
+		// variables en conflit : enConflit[0..nbConflits-1], position[x] ou -1
+		final int[] enConflit, position;
+		int nbConflits;
+		final long[] tabuFin;			// tabuFin[x*d+a] : a est interdite à x jusqu'à ce mouvement
+		final int[] ordre;
+		final SplittableRandom hasard;
+		long violations;
+		long mouvements, redemarrages;
+		// le mouvement choisi par choisirMouvement
+		int mouvX, mouvVal;
+
+		Recherche(Reseau reseau, long graine) {
+			n = reseau.nbVariables;
+			d = reseau.tailleDom;
+			int m = reseau.nbContraintes;
+			cx = reseau.x;
+			cy = reseau.y;
+			relation = new long[m][(d*d + 63) >>> 6];
+			int degre[] = new int[n];
+			for(int c=0;c<m;c++) {
+				for(int t=reseau.debut[c];t<reseau.debut[c+1];t++) {
+					int bit = reseau.tuples[2*t]*d + reseau.tuples[2*t+1];
+					relation[c][bit >>> 6] |= 1L << bit;
+				}
+				degre[cx[c]]++;
+				degre[cy[c]]++;
+			}
+			voisins = new int[n][];
+			for(int x=0;x<n;x++)
+				voisins[x] = new int[degre[x]];
+			for(int c=m-1;c>=0;c--) {
+				voisins[cx[c]][--degre[cx[c]]] = c;
+				voisins[cy[c]][--degre[cy[c]]] = c;
+			}
+			val = new int[n];
+			conf = new int[n*d];
+			enConflit = new int[n];
+			position = new int[n];
+			tabuFin = new long[n*d];
+			ordre = new int[n];
+			hasard = new SplittableRandom(graine);
+		}
+
+		boolean autorise(int c, int a, int b) {
+			int bit = a*d + b;
+			return (relation[c][bit >>> 6] & (1L << bit)) != 0;
+		}
+
+		/** Ajoute (signe 1) ou retire (signe -1) l'effet de x=a sur les compteurs de ses voisines. */
+		private void propagerValeur(int x, int a, int signe) {
+			for(int c : voisins[x]) {
+				boolean xEnPremier = cx[c] == x;
+				int y = xEnPremier ? cy[c] : cx[c];
+				int base = y*d;
+				for(int b=0;b<d;b++)
+					if(!(xEnPremier ? autorise(c, a, b) : autorise(c, b, a)))
+						conf[base+b] += signe;
+				mettreAJour(y);
+			}
+		}
+
+		private void affecter(int x, int a) {
+			val[x] = a;
+			violations += conf[x*d+a];
+			propagerValeur(x, a, 1);
+			mettreAJour(x);
+		}
+
+		private void desaffecter(int x) {
+			int a = val[x];
+			violations -= conf[x*d+a];
+			val[x] = -1;
+			propagerValeur(x, a, -1);
+			mettreAJour(x);
+		}
+
+		/** Met x dans l'ensemble des variables en conflit, ou l'en sort. */
+		private void mettreAJour(int x) {
+			boolean conflit = val[x] >= 0 && conf[x*d+val[x]] > 0;
+			if(conflit && position[x] < 0) {
+				position[x] = nbConflits;
+				enConflit[nbConflits++] = x;
+			} else if(!conflit && position[x] >= 0) {
+				int dernier = enConflit[--nbConflits];
+				enConflit[position[x]] = dernier;
+				position[dernier] = position[x];
+				position[x] = -1;
+			}
+		}
+
+		/** Affectation gloutonne de toutes les variables, dans un ordre aléatoire. */
+		private void placer() {
+			java.util.Arrays.fill(val, -1);
+			java.util.Arrays.fill(conf, 0);
+			java.util.Arrays.fill(position, -1);
+			java.util.Arrays.fill(tabuFin, 0);
+			nbConflits = 0;
+			violations = 0;
+			for(int i=0;i<n;i++) {
+				int j = hasard.nextInt(i+1);
+				ordre[i] = ordre[j];
+				ordre[j] = i;
+			}
+			for(int i=0;i<n;i++) {
+				int x = ordre[i];
+				affecter(x, meilleureValeur(x));
+			}
+		}
+
+		/** La valeur de x la moins en conflit, au hasard parmi les ex aequo. */
+		private int meilleureValeur(int x) {
+			int base = x*d;
+			int meilleure = 0, min = Integer.MAX_VALUE, egalites = 0;
+			for(int a=0;a<d;a++) {
+				int nb = conf[base+a];
+				if(nb < min) {
+					min = nb;
+					meilleure = a;
+					egalites = 1;
+				} else if(nb == min && hasard.nextInt(++egalites) == 0)
+					meilleure = a;
+			}
+			return meilleure;
+		}
+
+		/**
+		 * Le meilleur couple (mouvX, mouvVal) non tabou, ou tabou s'il fait
+		 * descendre les violations sous record ; faux si tout est tabou.
+		 */
+		private boolean choisirMouvement(long record) {
+			long min = Long.MAX_VALUE;
+			int egalites = 0;
+			int k = Math.min(nbConflits, ECHANTILLON);
+			for(int i=0;i<k;i++) {
+				int x = k == nbConflits ? enConflit[i] : enConflit[hasard.nextInt(nbConflits)];
+				int base = x*d, actuelle = conf[base+val[x]];
+				for(int a=0;a<d;a++) {
+					if(a == val[x])
+						continue;
+					long delta = conf[base+a] - actuelle;
+					if(tabuFin[base+a] > mouvements && violations + delta >= record)
+						continue;
+					if(delta < min) {
+						min = delta;
+						mouvX = x;
+						mouvVal = a;
+						egalites = 1;
+					} else if(delta == min && hasard.nextInt(++egalites) == 0) {
+						mouvX = x;
+						mouvVal = a;
+					}
+				}
+			}
+			return min != Long.MAX_VALUE;
+		}
+
+		/** Cherche une solution jusqu'à echeance (System.nanoTime()) ; faux à l'échéance. */
+		boolean chercher(long echeance) {
+			if(n == 0)
+				return true;
+			placer();
+			long meilleur = violations, depuis = 0;
+			long patience = Math.max(10_000, 10L*n);
+			while(violations > 0) {
+				if((mouvements & 0x3FF) == 0 && System.nanoTime() > echeance)
+					return false;
+				mouvements++;
+				if(d < 2)
+					continue;
+				if(hasard.nextDouble() < MARCHE) {
+					mouvX = enConflit[hasard.nextInt(nbConflits)];
+					mouvVal = (val[mouvX] + 1 + hasard.nextInt(d-1)) % d;
+				} else if(!choisirMouvement(meilleur))
+					continue;
+				int x = mouvX, a = val[x];
+				desaffecter(x);
+				affecter(x, mouvVal);
+				tabuFin[x*d+a] = mouvements + TABU;
+				if(violations < meilleur) {
+					meilleur = violations;
+					depuis = 0;
+				} else if(++depuis > patience) {
+					redemarrages++;
+					placer();
+					meilleur = violations;
+					depuis = 0;
+				}
+			}
+			return true;
+		}
+	}
+}
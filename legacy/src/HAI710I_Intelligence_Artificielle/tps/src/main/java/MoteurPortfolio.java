@@ -0,0 +1,103 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.chocosolver.solver.Model;
+import org.chocosolver.solver.Solver;
+
+/**
+ * Portfolio parallèle : plusieurs stratégies de recherche sont lancées en même
+ * temps, chacune sur sa propre copie du modèle et son propre thread. La première
+ * qui trouve une solution ou prouve l'insatisfiabilité gagne, les autres sont
+ * arrêtées par un critère d'arrêt partagé.
+ */
+public class MoteurPortfolio implements Moteur {
+
+	private final List<StrategieRecherche> strategies;
+	private final ExecutorService pool = Executors.newCachedThreadPool();
+
+	public MoteurPortfolio(List<StrategieRecherche> strategies) {
+		this.strategies = strategies;
+	}
+
+	@Override
+	public String nom() {
+		return "portfolio";
+	}
+
+	@Override
+	public String configuration() {
+		StringBuilder noms = new StringBuilder("portfolio:");
+		for(StrategieRecherche s : strategies)
+			noms.append(s.nom).append(',');
+		return noms.substring(0, noms.length()-1);
+	}
+
+	public int taille() {
+		return strategies.size();
+	}
+
+	@Override
+	public void resoudre(Reseau reseau, long limiteMs, Resultat res) {
+		AtomicBoolean fini = new AtomicBoolean();
+		AtomicLong alloues = new AtomicLong();
+		List<Future<?>> futurs = new ArrayList<>();
+		for(StrategieRecherche strategie : strategies) {
+			futurs.add(pool.submit(() -> {
+				long avant = JournalResultats.octetsAlloues();
+				try {
+					resoudre(reseau, limiteMs, res, strategie, fini);
+				} finally {
+					if(avant >= 0)
+						alloues.addAndGet(JournalResultats.octetsAlloues() - avant);
+				}
+			}));
+		}
+		try {
+			for(Future<?> f : futurs)
+				f.get();
+		} catch(InterruptedException e) {
+			fini.set(true);
+			Thread.currentThread().interrupt();
+		} catch(ExecutionException e) {
+			fini.set(true);
+			throw new IllegalStateException(e.getCause());
+		}
+		res.octetsAlloues += alloues.get();
+	}
+
+	/** Une stratégie du portfolio ; la première qui conclut remplit res. */
+	private static void resoudre(Reseau reseau, long limiteMs, Resultat res, StrategieRecherche strategie, AtomicBoolean fini) {
+		long t0 = System.nanoTime();
+		Model model = reseau.construireModele();
+		long construction = System.nanoTime() - t0;
+		strategie.appliquer(model);
+		Solver solver = model.getSolver();
+		solver.limitTime(limiteMs);
+		solver.addStopCriterion(fini::get);
+		boolean solution = solver.solve();
+		// arrêté par la limite de temps ou par une autre stratégie : pas de conclusion
+		if(!solution && solver.isStopCriterionMet())
+			return;
+		if(fini.compareAndSet(false, true)) {
+			res.statut = solution ? Resultat.Statut.SATISFIABLE : Resultat.Statut.INSATISFIABLE;
+			res.tempsConstruction = construction;
+			res.noeuds = solver.getNodeCount();
+			res.retours = solver.getBackTrackCount();
+			res.echecs = solver.getFailCount();
+			res.strategie = strategie.nom;
+			if(solution)
+				res.solution = MoteurChoco.valeurs(model, reseau.nbVariables);
+		}
+	}
+
+	@Override
+	public void close() {
+		pool.shutdownNow();
+	}
+}
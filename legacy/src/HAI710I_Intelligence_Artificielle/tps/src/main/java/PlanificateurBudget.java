@@ -0,0 +1,147 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+import org.chocosolver.util.tools.TimeUtils;
+
+/**
+ * Budgets de temps d'une campagne, désignés par initial[+croissance] :
+ *
+ *   initial                 budget du premier passage (1s, 0.2s... au format de TimeUtils)
+ *   geometrique[-f]         budget multiplié par f (2 par défaut) à chaque passage
+ *   luby                    budget initial multiplié par la suite de Luby (1 1 2 1 1 2 4 ...)
+ *
+ * Tous les réseaux sont d'abord résolus avec le budget initial ; seuls ceux
+ * restés INCONNU repassent, avec le budget suivant. Aucun budget ne dépasse la
+ * limite maximale (-limite) : la planification s'arrête après le premier passage
+ * qui l'atteint, ou dès que le plafond global est écoulé.
+ *
+ * Chaque passage reçoit son numéro, dont la tâche décale les graines du moteur
+ * (Moteur.varier) : un budget déjà essayé est alors un nouvel essai, avec une
+ * autre clé dans le cache des résultats. Un moteur déterministe referait le
+ * même travail : pour lui, les passages dont le budget ne dépasse pas le plus
+ * grand déjà essayé sont sautés, et Luby revient à doubler le budget.
+ */
+public class PlanificateurBudget {
+
+	/** Résout le réseau numéro nb avec la limite donnée, au passage numéro passage (à partir de 0). */
+	interface Tache {
+		Resultat resoudre(int nb, long limiteMs, int passage) throws Exception;
+	}
+
+	private final long initialMs;
+	private final boolean luby;
+	private final double facteur;
+	private final long maxMs;
+	private final long echeance;		// System.nanoTime() de fin du plafond global
+
+	private PlanificateurBudget(long initialMs, boolean luby, double facteur, long maxMs, long plafondMs) {
+		this.initialMs = initialMs;
+		this.luby = luby;
+		this.facteur = facteur;
+		this.maxMs = maxMs;
+		echeance = plafondMs == Long.MAX_VALUE ? Long.MAX_VALUE : System.nanoTime() + plafondMs * 1_000_000L;
+	}
+
+	/** Le plafond part de l'appel ; Long.MAX_VALUE pour ne pas en avoir. */
+	public static PlanificateurBudget lire(String nom, long maxMs, long plafondMs) {
+		String options[] = nom.split("\\+");
+		long initialMs = TimeUtils.convertInMilliseconds(options[0]);
+		if(initialMs <= 0)
+			throw new IllegalArgumentException("Budget initial invalide : "+nom);
+		boolean luby = false;
+		double facteur = 2;
+		if(options.length > 1) {
+			String param[] = options[1].split("-");
+			switch(param[0]) {
+				case "luby" :
+					luby = true;
+					break;
+				case "geometrique" :
+					if(param.length > 1)
+						facteur = Double.parseDouble(param[1]);
+					if(facteur <= 1)
+						throw new IllegalArgumentException("Facteur de croissance <= 1 : "+nom);
+					break;
+				default :
+					throw new IllegalArgumentException("Croissance inconnue : "+nom);
+			}
+		}
+		return new PlanificateurBudget(initialMs, luby, facteur, maxMs, plafondMs);
+	}
+
+	/** i-ème terme de la suite de Luby, à partir de 1. */
+	static long luby(long i) {
+		int k = 1;
+		while((1L << k) - 1 < i)
+			k++;
+		if((1L << k) - 1 == i)
+			return 1L << (k-1);
+		return luby(i - (1L << (k-1)) + 1);
+	}
+
+	/** Budget du passage numéro passage (à partir de 0), sans le plafond. */
+	long budget(int passage) {
+		double b = luby ? (double) initialMs * luby(passage + 1) : initialMs * Math.pow(facteur, passage);
+		return (long) Math.min(b, maxMs);
+	}
+
+	private long resteMs() {
+		if(echeance == Long.MAX_VALUE)
+			return Long.MAX_VALUE;
+		return (echeance - System.nanoTime()) / 1_000_000L;
+	}
+
+	/**
+	 * Résout les réseaux de selection par passages successifs et rend, dans
+	 * l'ordre de selection, le dernier résultat de chacun (INCONNU si aucun
+	 * passage n'a conclu, ou si le plafond est écoulé avant qu'il ne démarre).
+	 * varie indique si la tâche change de graine d'un passage à l'autre.
+	 */
+	public List<Resultat> executer(ExecuteurParallele executeur, String ficName, int[] selection, boolean varie, Tache tache) throws Exception {
+		Resultat resultats[] = new Resultat[selection.length];
+		List<Integer> restants = new ArrayList<>();
+		for(int i=0;i<selection.length;i++)
+			restants.add(i);
+		long plusGrand = 0;		// plus grand budget déjà essayé
+		for(int passage=0; !restants.isEmpty(); passage++) {
+			if(!varie && budget(passage) <= plusGrand)
+				continue;
+			plusGrand = Math.max(plusGrand, budget(passage));
+			long reste = resteMs();
+			if(reste <= 0) {
+				Trace.afficher(Trace.Niveau.BILAN, "Plafond global atteint : "+restants.size()+" réseau(x) non résolu(s)");
+				break;
+			}
+			long budget = Math.min(budget(passage), reste);
+			List<Callable<Resultat>> taches = new ArrayList<>();
+			int numero = passage;
+			for(int i : restants) {
+				int nb = selection[i];
+				// le plafond est relu au démarrage de chaque tâche : une tâche qui attend
+				// son tour dans l'exécuteur ne doit pas le dépasser
+				taches.add(() -> {
+					long limite = Math.min(budget, resteMs());
+					return limite <= 0 ? new Resultat(ficName, nb) : tache.resoudre(nb, limite, numero);
+				});
+			}
+			List<Resultat> obtenus = executeur.executer(taches);
+			List<Integer> suivants = new ArrayList<>();
+			for(int k=0;k<obtenus.size();k++) {
+				int i = restants.get(k);
+				resultats[i] = obtenus.get(k);
+				if(resultats[i].statut == Resultat.Statut.INCONNU)
+					suivants.add(i);
+			}
+			Trace.afficher(Trace.Niveau.BILAN, String.format("Passage %d (budget %d ms) : %d résolu(s), %d restant(s)", passage+1, budget,
+					restants.size() - suivants.size(), suivants.size()));
+			restants = suivants;
+			if(budget >= maxMs)
+				break;
+		}
+		List<Resultat> liste = new ArrayList<>(selection.length);
+		for(int i=0;i<selection.length;i++)
+			liste.add(resultats[i] != null ? resultats[i] : new Resultat(ficName, selection[i]));
+		return liste;
+	}
+}
@@ -0,0 +1,112 @@
+import org.chocosolver.solver.constraints.Propagator;
+import org.chocosolver.solver.constraints.PropagatorPriority;
+import org.chocosolver.solver.constraints.extension.Tuples;
+import org.chocosolver.solver.exception.ContradictionException;
+import org.chocosolver.solver.variables.IntVar;
+import org.chocosolver.util.ESat;
+
+/**
+ * Propagateur de table binaire par bitsets (arc-cohérence).
+ * Pour chaque valeur a de x on garde l'ensemble de ses supports dans y sous
+ * forme de mots long, et de même pour y. Une valeur est retirée quand le ET
+ * entre ses supports et le domaine courant de l'autre variable est nul ; le
+ * dernier mot qui contenait un support (résidu) est testé en premier.
+ */
+public class PropTableBinaire extends Propagator<IntVar> {
+
+	private final int minX, minY;			// les valeurs sont décalées pour commencer au bit 0
+	private final long[][] supportsX;		// supportsX[a-minX] : les b-minY compatibles avec a
+	private final long[][] supportsY;		// supportsY[b-minY] : les a-minX compatibles avec b
+	private final int[] residusX, residusY;
+	private final long[] domaine;			// domaine courant de l'autre variable, réutilisé à chaque passe
+
+	public PropTableBinaire(IntVar x, IntVar y, Tuples tuples) {
+		super(new IntVar[]{x, y}, PropagatorPriority.BINARY, false);
+		minX = x.getLB();
+		minY = y.getLB();
+		int tailleX = x.getUB() - minX + 1;
+		int tailleY = y.getUB() - minY + 1;
+		supportsX = new long[tailleX][mots(tailleY)];
+		supportsY = new long[tailleY][mots(tailleX)];
+		for(int t=0;t<tuples.nbTuples();t++) {
+			int couple[] = tuples.get(t);
+			int a = couple[0] - minX, b = couple[1] - minY;
+			if(a < 0 || a >= tailleX || b < 0 || b >= tailleY)
+				continue;
+			supportsX[a][b >>> 6] |= 1L << b;
+			supportsY[b][a >>> 6] |= 1L << a;
+		}
+		if(!tuples.isFeasible()) {
+			complementer(supportsX, tailleY);
+			complementer(supportsY, tailleX);
+		}
+		residusX = new int[tailleX];
+		residusY = new int[tailleY];
+		domaine = new long[Math.max(mots(tailleX), mots(tailleY))];
+	}
+
+	private static int mots(int taille) {
+		return (taille + 63) >>> 6;
+	}
+
+	/** Tuples interdits : on garde le complément, limité aux bits du domaine. */
+	private static void complementer(long[][] supports, int taille) {
+		for(long[] s : supports) {
+			for(int m=0;m<s.length;m++)
+				s[m] = ~s[m];
+			if((taille & 63) != 0)
+				s[s.length-1] &= (1L << taille) - 1;
+		}
+	}
+
+	@Override
+	public void propagate(int evtmask) throws ContradictionException {
+		// Choco ne rappelle pas un propagateur pour ses propres retraits : point fixe local
+		filtrer(vars[0], minX, vars[1], minY, supportsX, residusX);
+		while(filtrer(vars[1], minY, vars[0], minX, supportsY, residusY)
+				&& filtrer(vars[0], minX, vars[1], minY, supportsX, residusX));
+	}
+
+	/** Retire de v les valeurs sans support dans w ; vrai si v a été modifiée. */
+	private boolean filtrer(IntVar v, int minV, IntVar w, int minW, long[][] supports, int[] residus) throws ContradictionException {
+		int nbMots = mots(w.getUB() - minW + 1);
+		for(int m=0;m<nbMots;m++)
+			domaine[m] = 0;
+		int ubW = w.getUB();
+		for(int b=w.getLB();b<=ubW;b=w.nextValue(b))
+			domaine[(b-minW) >>> 6] |= 1L << (b-minW);
+
+		boolean modifie = false;
+		int ubV = v.getUB();
+		for(int a=v.getLB();a<=ubV;a=v.nextValue(a)) {
+			long s[] = supports[a-minV];
+			int r = residus[a-minV];
+			if(r < nbMots && (s[r] & domaine[r]) != 0)
+				continue;
+			int m = 0;
+			while(m < nbMots && (s[m] & domaine[m]) == 0)
+				m++;
+			if(m < nbMots)
+				residus[a-minV] = m;
+			else
+				modifie |= v.removeValue(a, this);
+		}
+		return modifie;
+	}
+
+	/** Vrai si le couple de valeurs (a, b) est autorisé (voir ReecritureTables). */
+	public boolean autorise(int a, int b) {
+		a -= minX;
+		b -= minY;
+		if(a < 0 || a >= supportsX.length || b < 0 || b >= supportsY.length)
+			return false;
+		return (supportsX[a][b >>> 6] & (1L << b)) != 0;
+	}
+
+	@Override
+	public ESat isEntailed() {
+		if(vars[0].isInstantiated() && vars[1].isInstantiated())
+			return ESat.eval(autorise(vars[0].getValue(), vars[1].getValue()));
+		return ESat.UNDEFINED;
+	}
+}
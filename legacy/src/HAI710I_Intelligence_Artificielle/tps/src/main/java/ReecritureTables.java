@@ -0,0 +1,247 @@
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import org.chocosolver.solver.Model;
+import org.chocosolver.solver.Solver;
+import org.chocosolver.solver.constraints.Constraint;
+import org.chocosolver.solver.constraints.Propagator;
+import org.chocosolver.solver.constraints.extension.binary.PropBinCSP;
+import org.chocosolver.solver.variables.IntVar;
+
+/**
+ * Passe de prétraitement d'un modèle : une table binaire dont la relation, sur
+ * les domaines de ses deux variables, est exactement l'une des formes
+ *   x = y + c        égalité (c = 0) ou décalage, comme ivo+1 = gre
+ *   x != y + c       les tuplesInterdits de ZebreExtension
+ *   |x - y| = c      maisons voisines : tc11, tc12, tc15
+ *   |x - y| != c
+ * est remplacée par le arithm ou le distance équivalent, dont les propagateurs
+ * n'ont pas de table à parcourir.
+ *
+ * Les tables reconnues sont celles de model.table (propagateurs PropBinCSP de
+ * Choco) et PropTableBinaire : la relation est relue dans le propagateur et
+ * comparée à chaque forme sur dom(x) × dom(y), en O(|dom(x)| |dom(y)|) par
+ * table. Les domaines ne faisant que diminuer, la réécriture reste exacte
+ * pendant toute la recherche ; elle doit être faite avant solve().
+ *
+ * Chaque réécriture est tracée en verbosité modele. main mesure le gain sur le
+ * zèbre en extension, sur des énigmes générées par Enigme et sur des fichiers
+ * bench.
+ *
+ * usage : ReecritureTables [-repetitions 20] [-echauffement 10] [-tailles 6x10,8x20] [fichiers bench...]
+ */
+public class ReecritureTables {
+
+	enum Forme {
+		EGAL("="), DIFFERENT("!="), DISTANCE("="), DISTANCE_DIFFERENTE("!=");
+
+		final String operateur;
+
+		Forme(String operateur) {
+			this.operateur = operateur;
+		}
+
+		boolean distance() {
+			return this == DISTANCE || this == DISTANCE_DIFFERENTE;
+		}
+
+		/** Vrai si (a, b) satisfait la forme pour la constante c. */
+		boolean vrai(int a, int b, int c) {
+			switch(this) {
+				case EGAL:
+					return a == b + c;
+				case DIFFERENT:
+					return a != b + c;
+				case DISTANCE:
+					return Math.abs(a - b) == c;
+				default:
+					return Math.abs(a - b) != c;
+			}
+		}
+
+		String texte(IntVar x, IntVar y, int c) {
+			if(distance())
+				return "|"+x.getName()+" - "+y.getName()+"| "+operateur+" "+c;
+			return x.getName()+" "+operateur+" "+y.getName()+(c > 0 ? " + "+c : c < 0 ? " - "+(-c) : "");
+		}
+	}
+
+	/** La relation d'une table binaire, relue dans son propagateur. */
+	private interface Relation {
+		boolean autorise(int a, int b);
+	}
+
+	private ReecritureTables() {
+	}
+
+	/** La relation de p si c'est une table binaire, null sinon. */
+	private static Relation relation(Propagator<?> p) {
+		if(p instanceof PropBinCSP)
+			return ((PropBinCSP) p).getRelation()::checkCouple;
+		if(p instanceof PropTableBinaire)
+			return ((PropTableBinaire) p)::autorise;
+		return null;
+	}
+
+	/** Vrai si la relation coïncide avec forme(c) sur dom(x) × dom(y). */
+	private static boolean coincide(Relation r, IntVar x, IntVar y, Forme forme, int c) {
+		int ubX = x.getUB(), ubY = y.getUB();
+		for(int a=x.getLB();a<=ubX;a=x.nextValue(a))
+			for(int b=y.getLB();b<=ubY;b=y.nextValue(b))
+				if(r.autorise(a, b) != forme.vrai(a, b, c))
+					return false;
+		return true;
+	}
+
+	/**
+	 * Remplace les tables binaires du modèle qui ont l'une des formes reconnues ;
+	 * rend, pour chaque forme, le nombre de tables réécrites.
+	 */
+	static Map<Forme, Integer> reecrire(Model model) {
+		Map<Forme, Integer> nombres = new EnumMap<>(Forme.class);
+		for(Constraint cstr : model.getCstrs()) {
+			Propagator<?> props[] = cstr.getPropagators();
+			if(props.length != 1 || props[0].getNbVars() != 2)
+				continue;
+			Relation r = relation(props[0]);
+			if(r == null)
+				continue;
+			IntVar x = (IntVar) props[0].getVar(0), y = (IntVar) props[0].getVar(1);
+			// un couple autorisé et un couple interdit fixent la constante de chaque forme
+			int autorise[] = null, interdit[] = null;
+			int ubX = x.getUB(), ubY = y.getUB();
+			for(int a=x.getLB();a<=ubX && (autorise == null || interdit == null);a=x.nextValue(a))
+				for(int b=y.getLB();b<=ubY && (autorise == null || interdit == null);b=y.nextValue(b)) {
+					if(r.autorise(a, b)) {
+						if(autorise == null)
+							autorise = new int[]{a, b};
+					} else if(interdit == null)
+						interdit = new int[]{a, b};
+				}
+			// une relation vide ou complète n'a aucune des formes
+			if(autorise == null || interdit == null)
+				continue;
+			for(Forme forme : Forme.values()) {
+				int couple[] = forme == Forme.EGAL || forme == Forme.DISTANCE ? autorise : interdit;
+				int c = forme.distance() ? Math.abs(couple[0] - couple[1]) : couple[0] - couple[1];
+				if(!coincide(r, x, y, forme, c))
+					continue;
+				model.unpost(cstr);
+				if(forme.distance())
+					model.distance(x, y, forme.operateur, c).post();
+				else if(c == 0)
+					model.arithm(x, forme.operateur, y).post();
+				else
+					model.arithm(x, forme.operateur, y, "+", c).post();
+				nombres.merge(forme, 1, Integer::sum);
+				Trace.afficher(Trace.Niveau.MODELE, () -> "Réécriture de "+cstr.getName()+"("+x.getName()+", "+y.getName()+") en "+forme.texte(x, y, c));
+				break;
+			}
+		}
+		return nombres;
+	}
+
+	private static int total(Map<Forme, Integer> nombres) {
+		int total = 0;
+		for(int n : nombres.values())
+			total += n;
+		return total;
+	}
+
+	/** Les nombres de réécritures par forme, comme "11 x=y+c, 50 x!=y+c, 3 |x-y|=c". */
+	static String bilan(Map<Forme, Integer> nombres) {
+		List<String> parties = new ArrayList<>();
+		for(Map.Entry<Forme, Integer> e : nombres.entrySet())
+			parties.add(e.getValue()+" "+(e.getKey().distance() ? "|x-y|"+e.getKey().operateur+"c" : "x"+e.getKey().operateur+"y+c"));
+		return parties.isEmpty() ? "aucune" : String.join(", ", parties);
+	}
+
+	/** Résout le modèle (toutes les solutions si toutes) et rend {nanosecondes, noeuds, solutions}. */
+	private static long[] resoudre(Model model, boolean toutes) {
+		Solver solver = model.getSolver();
+		long t0 = System.nanoTime();
+		if(toutes) {
+			while(solver.solve())
+				;
+		} else
+			solver.solve();
+		return new long[]{System.nanoTime() - t0, solver.getNodeCount(), solver.getSolutionCount()};
+	}
+
+	/**
+	 * Mesure la résolution du modèle sans puis avec réécriture (médianes, les
+	 * deux ordres alternant d'une répétition à l'autre) et affiche une ligne.
+	 */
+	private static void comparer(String nom, Supplier<Model> construire, boolean toutes, int repetitions, int echauffement) {
+		Model essai = construire.get();
+		int contraintes = essai.getNbCstrs();
+		Map<Forme, Integer> nombres = reecrire(essai);
+		if(nombres.isEmpty()) {
+			System.out.printf("%-20s %8d %10d %12s %12s %12s %9s  %s%n", nom, contraintes, 0, "-", "-", "-", "-", bilan(nombres));
+			return;
+		}
+		long sans[] = new long[repetitions], avec[] = new long[repetitions], reecriture[] = new long[repetitions];
+		long solutions[] = new long[2];		// sans, avec
+		Chronometrage.alterner(echauffement, repetitions, r -> {
+			long mesure[] = resoudre(construire.get(), toutes);
+			if(r >= 0) {
+				sans[r] = mesure[0];
+				solutions[0] = mesure[2];
+			}
+		}, r -> {
+			Model model = construire.get();
+			long t0 = System.nanoTime();
+			reecrire(model);
+			long t1 = System.nanoTime();
+			long mesure[] = resoudre(model, toutes);
+			if(r >= 0) {
+				reecriture[r] = t1 - t0;
+				avec[r] = mesure[0];
+				solutions[1] = mesure[2];
+			}
+		});
+		System.out.printf("%-20s %8d %10d %12.1f %12.1f %12.1f %8.2fx  %s%s%n", nom, contraintes, total(nombres),
+				Chronometrage.mediane(reecriture)/1e3, Chronometrage.mediane(sans)/1e3, Chronometrage.mediane(avec)/1e3,
+				Chronometrage.mediane(sans)/Math.max(Chronometrage.mediane(avec), 1), bilan(nombres),
+				solutions[0] == solutions[1] ? "" : "  (SOLUTIONS DIFFÉRENTES : "+solutions[0]+" / "+solutions[1]+")");
+	}
+
+	public static void main(String[] args) throws Exception {
+		args = Trace.options(args);
+		int repetitions = 20, echauffement = 10;
+		String tailles = "6x10,8x20";
+		List<String> fichiers = new ArrayList<>();
+		for(int a=0;a<args.length;a++) {
+			if(args[a].equals("-repetitions"))
+				repetitions = Integer.parseInt(args[++a]);
+			else if(args[a].equals("-echauffement"))
+				echauffement = Integer.parseInt(args[++a]);
+			else if(args[a].equals("-tailles"))
+				tailles = args[++a];
+			else
+				fichiers.add(args[a]);
+		}
+
+		System.out.printf("%-20s %8s %10s %12s %12s %12s %9s  %s%n", "modele", "cstrs", "reecrites", "reecr. us", "sans us", "avec us", "gain", "formes");
+		// les modèles de puzzle sont énumérés entièrement, les réseaux bench jusqu'à la première solution
+		comparer("zebre", ZebreExtension::construireModele, true, repetitions, echauffement);
+		for(String taille : tailles.split(",")) {
+			if(taille.isEmpty())
+				continue;
+			String km[] = taille.split("x");
+			Enigme e = Enigme.generer(Integer.parseInt(km[0]), Integer.parseInt(km[1]), 1, null);
+			comparer("enigme "+taille, () -> e.construireModele(true), true, repetitions, echauffement);
+		}
+		for(String ficName : fichiers) {
+			try(SourceReseaux source = SourceReseaux.ouvrir(ficName)) {
+				for(int i=0;i<source.nbReseaux();i++) {
+					Reseau reseau = source.lire(i);
+					comparer(ficName+" "+(i+1), reseau::construireModele, false, repetitions, echauffement);
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,221 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import org.chocosolver.solver.Model;
+import org.chocosolver.solver.Solver;
+import org.chocosolver.util.tools.TimeUtils;
+
+/**
+ * Les n reines sans solveur (n <= 63) : les colonnes et les deux sens de
+ * diagonales déjà pris sont trois masques de bits, les cases libres de la
+ * ligne suivante sont ~(colonnes | diag1 | diag2), et on les parcourt bit par
+ * bit. Rien n'est alloué pendant la recherche : la pile est celle des appels
+ * (profondeur n), et les masques y passent par valeur.
+ *
+ * Sert d'étalon pour mesurer ce que coûte le modèle de contraintes : main
+ * compare, pour chaque n, la première solution et le nombre de solutions
+ * trouvés ici et par le modèle de ReinesIntension résolu par Choco.
+ *
+ * Le comptage utilise la symétrie gauche-droite (première reine dans la moitié
+ * gauche) et répartit les colonnes de la première reine sur un ForkJoinPool.
+ *
+ * usage : ReinesBitmask [n...] [-threads 8] [-limite 30s] [-comptage 16]
+ * -limite borne chaque résolution Choco et chaque première solution par
+ * masques ; au-delà la case est marquée "limite".
+ * Le nombre de solutions est multiplié par 6 à 7 d'un n au suivant : on ne
+ * compte que jusqu'à n = -comptage, au-delà seule la première solution est cherchée.
+ */
+public class ReinesBitmask {
+
+	private ReinesBitmask() {
+	}
+
+	/** Nombre de solutions dont les reines déjà placées occupent colonnes, diag1 et diag2. */
+	static long compter(long tout, long colonnes, long diag1, long diag2) {
+		if(colonnes == tout)
+			return 1;
+		long nb = 0;
+		long libres = tout & ~(colonnes | diag1 | diag2);
+		while(libres != 0) {
+			long bit = libres & -libres;
+			libres ^= bit;
+			nb += compter(tout, colonnes | bit, (diag1 | bit) << 1, (diag2 | bit) >>> 1);
+		}
+		return nb;
+	}
+
+	/** Les solutions dont la première reine est dans la colonne (bit) c. */
+	private static final class Colonne extends RecursiveTask<Long> {
+
+		private static final long serialVersionUID = 1L;
+
+		final int n, c;
+
+		Colonne(int n, int c) {
+			this.n = n;
+			this.c = c;
+		}
+
+		@Override
+		protected Long compute() {
+			long bit = 1L << c;
+			return compter((1L << n) - 1, bit, bit << 1, bit >>> 1);
+		}
+	}
+
+	/** Nombre total de solutions, réparti sur le pool par colonne de la première reine. */
+	static long compter(int n, ForkJoinPool pool) {
+		verifierTaille(n);
+		List<Colonne> moitie = new ArrayList<>();
+		for(int c=0;c<(n+1)/2;c++)
+			moitie.add(new Colonne(n, c));
+		for(Colonne t : moitie)
+			pool.execute(t);
+		long total = 0;
+		for(int c=0;c<(n+1)/2;c++)
+			total += (n % 2 == 1 && c == n/2 ? 1 : 2) * moitie.get(c).join();
+		return total;
+	}
+
+	/** État d'une recherche de première solution, alloué une fois. */
+	private static final class Premiere {
+		final long tout;
+		final int[] col;
+		final long echeance;
+		long noeuds;
+		boolean arretee;
+
+		Premiere(int n, int[] col, long limiteMs) {
+			tout = (1L << n) - 1;
+			this.col = col;
+			echeance = System.nanoTime() + limiteMs * 1_000_000L;
+		}
+
+		boolean chercher(int ligne, long colonnes, long diag1, long diag2) {
+			if(colonnes == tout)
+				return true;
+			// l'horloge n'est lue que tous les 2^16 noeuds
+			if((++noeuds & 0xFFFF) == 0 && System.nanoTime() > echeance)
+				arretee = true;
+			long libres = tout & ~(colonnes | diag1 | diag2);
+			while(libres != 0 && !arretee) {
+				long bit = libres & -libres;
+				libres ^= bit;
+				col[ligne] = Long.numberOfTrailingZeros(bit) + 1;
+				if(chercher(ligne+1, colonnes | bit, (diag1 | bit) << 1, (diag2 | bit) >>> 1))
+					return true;
+			}
+			return false;
+		}
+	}
+
+	/**
+	 * Première solution en essayant les colonnes de gauche à droite : col[i]
+	 * reçoit la colonne (de 1 à n) de la reine de la ligne i. Ce parcours
+	 * lexicographique devient exponentiel bien avant n = 63 (dès 35 environ),
+	 * d'où la limite de temps : INCONNU si elle est atteinte.
+	 */
+	static Resultat.Statut premiere(int n, int[] col, long limiteMs) {
+		verifierTaille(n);
+		Premiere p = new Premiere(n, col, limiteMs);
+		if(p.chercher(0, 0, 0, 0))
+			return Resultat.Statut.SATISFIABLE;
+		return p.arretee ? Resultat.Statut.INCONNU : Resultat.Statut.INSATISFIABLE;
+	}
+
+	private static void verifierTaille(int n) {
+		if(n < 1 || n > 63)
+			throw new IllegalArgumentException("ReinesBitmask : n doit être entre 1 et 63 (masques sur un long), pas "+n);
+	}
+
+	/** Temps de ReinesIntension (construction comprise) pour la première solution, ou -1 à la limite. */
+	private static long chocoPremiere(int n, long limiteMs) {
+		long t0 = System.nanoTime();
+		Model model = ReinesIntension.construireModele(n);
+		Solver solver = model.getSolver();
+		solver.limitTime(limiteMs);
+		solver.solve();
+		return solver.isStopCriterionMet() ? -1 : System.nanoTime() - t0;
+	}
+
+	/** Nombre de solutions trouvées par ReinesIntension, -1 à la limite ; temps dans duree[0]. */
+	private static long chocoCompter(int n, long limiteMs, long[] duree) {
+		long t0 = System.nanoTime();
+		Model model = ReinesIntension.construireModele(n);
+		Solver solver = model.getSolver();
+		solver.limitTime(limiteMs);
+		long nb = 0;
+		while(solver.solve())
+			nb++;
+		duree[0] = System.nanoTime() - t0;
+		return solver.isStopCriterionMet() ? -1 : nb;
+	}
+
+	private static String ms(long nanos) {
+		return nanos < 0 ? "limite" : String.format("%.3f", nanos/1e6);
+	}
+
+	public static void main(String[] args) {
+		args = Trace.options(args);
+		int nbThreads = Runtime.getRuntime().availableProcessors();
+		String limite = "30s";
+		int comptageMax = 16;
+		List<Integer> tailles = new ArrayList<>();
+		for(int a=0;a<args.length;a++) {
+			if(args[a].equals("-threads"))
+				nbThreads = Integer.parseInt(args[++a]);
+			else if(args[a].equals("-limite"))
+				limite = args[++a];
+			else if(args[a].equals("-comptage"))
+				comptageMax = Integer.parseInt(args[++a]);
+			else
+				tailles.add(Integer.parseInt(args[a]));
+		}
+		if(tailles.isEmpty()) {
+			for(int n : ReinesIntension.VALS_POSSIBLES)
+				tailles.add(n);
+			for(int n : new int[]{20, 24, 28, 32})
+				tailles.add(n);
+		}
+		long limiteMs = TimeUtils.convertInMilliseconds(limite);
+
+		ForkJoinPool pool = new ForkJoinPool(nbThreads);
+		try {
+			// échauffement du JIT, sans quoi les premières lignes mesurent surtout l'interpréteur
+			for(int i=0;i<20;i++) {
+				compter(8, pool);
+				premiere(8, new int[8], limiteMs);
+				chocoCompter(8, limiteMs, new long[1]);
+			}
+			Trace.afficher(Trace.Niveau.BILAN, String.format("%4s | %14s %14s | %14s %12s %14s %12s",
+					"n", "1re bits ms", "1re choco ms", "nb bits", "bits ms", "nb choco", "choco ms"));
+			for(int n : tailles) {
+				int col[] = new int[n];
+				long t0 = System.nanoTime();
+				Resultat.Statut statut = premiere(n, col, limiteMs);
+				long premiereBits = statut == Resultat.Statut.INCONNU ? -1 : System.nanoTime() - t0;
+				if(statut == Resultat.Statut.SATISFIABLE && !ReinesGrandes.verifier(col))
+					throw new IllegalStateException("ReinesBitmask : solution fausse pour n = "+n);
+				long premiereChoco = chocoPremiere(n, limiteMs);
+
+				if(n > comptageMax) {
+					Trace.afficher(Trace.Niveau.BILAN, String.format("%4d | %14s %14s |", n, ms(premiereBits), ms(premiereChoco)));
+					continue;
+				}
+				t0 = System.nanoTime();
+				long nbBits = compter(n, pool);
+				long comptageBits = System.nanoTime() - t0;
+				long duree[] = new long[1];
+				long nbChoco = chocoCompter(n, limiteMs, duree);
+
+				Trace.afficher(Trace.Niveau.BILAN, String.format("%4d | %14s %14s | %14d %12s %14s %12s", n,
+						ms(premiereBits), ms(premiereChoco), nbBits, ms(comptageBits),
+						nbChoco < 0 ? "limite" : Long.toString(nbChoco), nbChoco < 0 ? ms(-1) : ms(duree[0])));
+			}
+		} finally {
+			pool.shutdown();
+		}
+	}
+}
@@ -0,0 +1,148 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.chocosolver.solver.Model;
+import org.chocosolver.solver.Solver;
+import org.chocosolver.solver.search.strategy.Search;
+import org.chocosolver.solver.search.strategy.selectors.values.IntDomainMin;
+import org.chocosolver.solver.search.strategy.selectors.variables.FirstFail;
+import org.chocosolver.solver.variables.IntVar;
+
+/**
+ * Nombre de solutions des n reines, sans les afficher.
+ *
+ * Symétrie : le miroir gauche-droite d'une solution en est une autre, avec la
+ * première reine dans la colonne n+1-c au lieu de c. On ne compte donc que les
+ * solutions dont la première reine est dans la moitié gauche, deux fois, plus
+ * celles où elle est au milieu (n impair), une fois.
+ *
+ * Les positions des premières reines (-profondeur, 3 par défaut) découpent la
+ * recherche en sous-problèmes indépendants, répartis sur un ForkJoinPool :
+ * chaque sous-problème est le modèle de ReinesGrandes avec ces reines fixées,
+ * énuméré par Choco. Les préfixes qui se prennent déjà eux-mêmes ne sont pas
+ * créés.
+ *
+ * usage : ReinesComptage [n...] [-profondeur 3] [-threads 8] [-coherence FC|BC|AC]
+ */
+public class ReinesComptage {
+
+	private final int n;
+	private final int profondeur;
+	private final String coherence;
+	private final AtomicLong nbSousProblemes = new AtomicLong();
+	private final AtomicLong noeuds = new AtomicLong();
+
+	ReinesComptage(int n, int profondeur, String coherence) {
+		this.n = n;
+		// les sous-problèmes partent de la première reine, fixée pour la symétrie : au moins 1
+		this.profondeur = Math.max(1, Math.min(profondeur, n));
+		this.coherence = coherence;
+	}
+
+	/** Les solutions qui commencent par prefixe (colonnes de 1 à n). */
+	private final class SousProbleme extends RecursiveTask<Long> {
+
+		private static final long serialVersionUID = 1L;
+
+		final int[] prefixe;
+
+		SousProbleme(int[] prefixe) {
+			this.prefixe = prefixe;
+		}
+
+		@Override
+		protected Long compute() {
+			if(prefixe.length == profondeur)
+				return compter(prefixe);
+			List<SousProbleme> suivants = new ArrayList<>();
+			for(int c=1;c<=n;c++) {
+				if(compatible(prefixe, c)) {
+					int p[] = Arrays.copyOf(prefixe, prefixe.length+1);
+					p[prefixe.length] = c;
+					suivants.add(new SousProbleme(p));
+				}
+			}
+			long total = 0;
+			for(SousProbleme s : invokeAll(suivants))
+				total += s.join();
+			return total;
+		}
+	}
+
+	/** Vrai si une reine en colonne c sur la ligne suivante n'est prise par aucune de prefixe. */
+	static boolean compatible(int[] prefixe, int c) {
+		int ligne = prefixe.length;
+		for(int i=0;i<ligne;i++)
+			if(prefixe[i] == c || Math.abs(prefixe[i] - c) == ligne - i)
+				return false;
+		return true;
+	}
+
+	private long compter(int[] prefixe) {
+		nbSousProblemes.incrementAndGet();
+		Model model = ReinesGrandes.construireModele(n, coherence);
+		IntVar reines[] = ReinesGrandes.reines(model);
+		for(int i=0;i<prefixe.length;i++)
+			model.arithm(reines[i], "=", prefixe[i]).post();
+		Solver solver = model.getSolver();
+		solver.setSearch(Search.intVarSearch(new FirstFail(model), new IntDomainMin(), reines));
+		long nb = 0;
+		while(solver.solve())
+			nb++;
+		noeuds.addAndGet(solver.getNodeCount());
+		return nb;
+	}
+
+	/** Le nombre total de solutions, en tenant compte de la symétrie. */
+	long compter(ForkJoinPool pool) {
+		List<SousProbleme> moitie = new ArrayList<>();
+		for(int c=1;c<=(n+1)/2;c++)
+			moitie.add(new SousProbleme(new int[]{c}));
+		for(SousProbleme s : moitie)
+			pool.execute(s);
+		long total = 0;
+		for(int c=1;c<=(n+1)/2;c++)
+			total += (n % 2 == 1 && c == (n+1)/2 ? 1 : 2) * moitie.get(c-1).join();
+		return total;
+	}
+
+	public static void main(String[] args) {
+		args = Trace.options(args);
+		int profondeur = 3;
+		int nbThreads = Runtime.getRuntime().availableProcessors();
+		String coherence = "FC";
+		List<Integer> tailles = new ArrayList<>();
+		for(int a=0;a<args.length;a++) {
+			if(args[a].equals("-profondeur"))
+				profondeur = Integer.parseInt(args[++a]);
+			else if(args[a].equals("-threads"))
+				nbThreads = Integer.parseInt(args[++a]);
+			else if(args[a].equals("-coherence"))
+				coherence = args[++a].toUpperCase();
+			else
+				tailles.add(Integer.parseInt(args[a]));
+		}
+		if(tailles.isEmpty())
+			for(int n=4;n<=12;n++)
+				tailles.add(n);
+
+		ForkJoinPool pool = new ForkJoinPool(nbThreads);
+		try {
+			Trace.afficher(Trace.Niveau.BILAN, String.format("%4s %14s %14s %14s %12s", "n", "solutions", "sous-problemes", "noeuds", "ms"));
+			for(int n : tailles) {
+				ReinesComptage comptage = new ReinesComptage(n, profondeur, coherence);
+				long t0 = System.nanoTime();
+				long total = comptage.compter(pool);
+				long ms = (System.nanoTime() - t0) / 1_000_000;
+				Trace.afficher(Trace.Niveau.BILAN, String.format("%4d %14d %14d %14d %12d", n, total,
+						comptage.nbSousProblemes.get(), comptage.noeuds.get(), ms));
+			}
+		} finally {
+			pool.shutdown();
+		}
+	}
+}
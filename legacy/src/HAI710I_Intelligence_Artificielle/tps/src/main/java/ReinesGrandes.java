@@ -0,0 +1,145 @@
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.chocosolver.memory.EnvironmentBuilder;
+import org.chocosolver.solver.Model;
+import org.chocosolver.solver.Solver;
+import org.chocosolver.solver.search.strategy.Search;
+import org.chocosolver.solver.search.strategy.selectors.values.IntDomainMiddle;
+import org.chocosolver.solver.search.strategy.selectors.variables.FirstFail;
+import org.chocosolver.solver.variables.IntVar;
+import org.chocosolver.util.tools.TimeUtils;
+
+/**
+ * Les n reines pour de grands n. ReinesIntension poste 3n(n-1)/2 contraintes
+ * arithm ; ici trois allDifferent seulement :
+ *   R[i]        colonnes
+ *   R[i] + i    diagonales d'un sens (vues décalées, rien n'est alloué en plus)
+ *   R[i] - i    diagonales de l'autre sens
+ * La cohérence des allDifferent est au choix : FC (retire la valeur d'une
+ * variable instanciée, en O(n) par instanciation), BC ou AC (coûteux en O(n²)
+ * et plus pour n grand).
+ *
+ * Recherche : plus petit domaine d'abord, valeur la plus proche du milieu de
+ * l'échiquier, qui trouve une solution presque sans retour arrière.
+ *
+ * Le modèle lui-même tient en O(n²) bits (les domaines) ; c'est la pile de
+ * sauvegarde de la recherche qui domine : chaque niveau de la branche retire
+ * jusqu'à trois valeurs à chaque reine restante, soit O(n²) sauvegardes. Il
+ * faut environ 3 Go de tas pour n = 10000.
+ *
+ * usage : ReinesGrandes [n...] [-coherence FC|BC|AC] [-limite 60s]
+ * Pour chaque n : temps de construction, mémoire du modèle, pic du tas pendant
+ * la recherche, temps jusqu'à la première solution, noeuds et retours arrière.
+ * La solution est vérifiée.
+ */
+public class ReinesGrandes {
+
+	private static final String REINES = "reines";
+
+	public static Model construireModele(int n, String coherence) {
+		// trail par blocs : la pile de sauvegarde (O(n²) pour une branche de profondeur n)
+		// grandit sans recopier un tableau de plusieurs Go
+		Model model = new Model(new EnvironmentBuilder().fromChunk().build(), "Reines"+n);
+		IntVar reines[] = model.intVarArray("R", n, 1, n, false);
+		IntVar diag1[] = new IntVar[n];
+		IntVar diag2[] = new IntVar[n];
+		for(int i=0;i<n;i++) {
+			diag1[i] = model.intOffsetView(reines[i], i);
+			diag2[i] = model.intOffsetView(reines[i], -i);
+		}
+		model.allDifferent(reines, coherence).post();
+		model.allDifferent(diag1, coherence).post();
+		model.allDifferent(diag2, coherence).post();
+		// pour n = 1, R[0] est une constante que retrieveIntVars ne rend pas
+		model.addHook(REINES, reines);
+		return model;
+	}
+
+	/** Les reines du modèle, dans l'ordre des lignes. */
+	static IntVar[] reines(Model model) {
+		return (IntVar[]) model.getHook(REINES);
+	}
+
+	/** Vrai si les colonnes col[0..n-1] (de 1 à n) forment une solution. */
+	static boolean verifier(int[] col) {
+		int n = col.length;
+		boolean colonne[] = new boolean[n+1], diag1[] = new boolean[2*n+1], diag2[] = new boolean[2*n+1];
+		for(int i=0;i<n;i++) {
+			int c = col[i];
+			if(c < 1 || c > n || colonne[c] || diag1[c+i] || diag2[c-i+n])
+				return false;
+			colonne[c] = diag1[c+i] = diag2[c-i+n] = true;
+		}
+		return true;
+	}
+
+	private static long memoireUtilisee(MemoryMXBean memoire) {
+		System.gc();
+		return memoire.getHeapMemoryUsage().getUsed();
+	}
+
+	/** Remet à zéro les pics des zones du tas, relus ensuite par JournalResultats.tasMax(). */
+	private static void oublierPics() {
+		for(MemoryPoolMXBean zone : ManagementFactory.getMemoryPoolMXBeans())
+			if(zone.getType() == MemoryType.HEAP)
+				zone.resetPeakUsage();
+	}
+
+	public static void main(String[] args) {
+		args = Trace.options(args);
+		String coherence = "FC";
+		String limite = "60s";
+		List<Integer> tailles = new ArrayList<>();
+		for(int a=0;a<args.length;a++) {
+			if(args[a].equals("-coherence"))
+				coherence = args[++a].toUpperCase();
+			else if(args[a].equals("-limite"))
+				limite = args[++a];
+			else
+				tailles.add(Integer.parseInt(args[a]));
+		}
+		if(tailles.isEmpty())
+			for(int n : new int[]{100, 1000, 2000, 5000, 10000})
+				tailles.add(n);
+
+		MemoryMXBean memoire = ManagementFactory.getMemoryMXBean();
+		Trace.afficher(Trace.Niveau.BILAN, String.format("%8s %12s %12s %12s %14s %10s %10s  %s",
+				"n", "constr. ms", "modele Mo", "tas max Mo", "1re sol. ms", "noeuds", "retours", "statut"));
+		for(int n : tailles) {
+			long avant = memoireUtilisee(memoire);
+			long t0 = System.nanoTime();
+			Model model = construireModele(n, coherence);
+			long construction = System.nanoTime() - t0;
+			long octets = memoireUtilisee(memoire) - avant;
+
+			IntVar reines[] = reines(model);
+			Solver solver = model.getSolver();
+			solver.setSearch(Search.intVarSearch(new FirstFail(model), new IntDomainMiddle(IntDomainMiddle.FLOOR), reines));
+			solver.limitTime(TimeUtils.convertInMilliseconds(limite));
+			oublierPics();
+			t0 = System.nanoTime();
+			boolean trouve = solver.solve();
+			long resolution = System.nanoTime() - t0;
+			long tasMax = JournalResultats.tasMax();
+
+			String statut;
+			if(trouve) {
+				int col[] = new int[n];
+				for(int i=0;i<n;i++)
+					col[i] = reines[i].getValue();
+				statut = verifier(col) ? "solution vérifiée" : "SOLUTION FAUSSE";
+			} else
+				statut = solver.isStopCriterionMet() ? "limite atteinte" : "pas de solution";
+			Trace.afficher(Trace.Niveau.BILAN, String.format("%8d %12.1f %12.1f %12.1f %14.1f %10d %10d  %s",
+					n, construction/1e6, Math.max(0, octets)/(1024.0*1024.0), tasMax/(1024.0*1024.0), resolution/1e6,
+					solver.getNodeCount(), solver.getBackTrackCount(), statut));
+			if(trouve && n <= 64)
+				Trace.afficher(Trace.Niveau.INSTANCE, () -> Trace.solution(reines));
+		}
+	}
+}
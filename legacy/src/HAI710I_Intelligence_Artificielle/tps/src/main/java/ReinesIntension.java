@@ -4,23 +4,12 @@ import org.chocosolver.solver.variables.IntVar;
 
 public class ReinesIntension {
 
-	public static void main(String[] args) {
-		
-		// Création du modele
-		Model model = new Model("Reines");
-		
-		
-		// Création des variables
-    int [] vals_possibles = {1, 2, 3, 4, 8, 12, 16};
-    
-    //int n = 8; // default n value
-    for (int val : vals_possibles) {
-        int n = val;
-        System.out.println("\n\nRésolution du problème des " + val + " reines");
-        model = new Model("Reines"); // reset model for next iteration
-    
-		
-    
+	/** Les valeurs de n résolues par main. */
+	public static final int[] VALS_POSSIBLES = {1, 2, 3, 4, 8, 12, 16};
+
+	/** Le modèle des n reines, sans résolution. */
+	public static Model construireModele(int n) {
+    Model model = new Model("Reines");
     IntVar [] reines = model.intVarArray("R", n, 1, n);
 
     // Création des contraintes
@@ -63,16 +52,32 @@ public class ReinesIntension {
             model.arithm(reines[i], "-", reines[j], "!=", j - i).post();
         }
     }
+
+    return model;
+	}
+
+	public static void main(String[] args) {
+    // -v silence|bilan|instance|modele et -echantillon N (une valeur de n sur N) : voir Trace
+    Trace.options(args);
+		
+    int [] vals_possibles = VALS_POSSIBLES;
     
-    // Affichage du réseau de contraintes créé
-    System.out.println("*** Réseau Initial ***");
-    System.out.println(model);
+    //int n = 8; // default n value
+    for (int i = 0; i < vals_possibles.length; i++) {
+        int n = vals_possibles[i];
+        int numero = i+1;
+        Trace.instance(Trace.Niveau.INSTANCE, numero, () -> "\n\nRésolution du problème des " + n + " reines");
+    
+		// Création du modele (nouveau pour chaque n)
+    Model model = construireModele(n);
+
+    // Affichage du réseau de contraintes créé (rendu seulement en verbosité modele)
+    Trace.instance(Trace.Niveau.MODELE, numero, () -> "*** Réseau Initial ***\n"+model);
     
 
     // Calcul de la première solution
     if(model.getSolver().solve()) {
-      System.out.println("\n\n*** Première solution ***");        
-      System.out.println(model);
+      Trace.instance(Trace.Niveau.INSTANCE, numero, () -> "\n\n*** Première solution ***\n"+Trace.solution(model));
     }
 
         
@@ -86,8 +91,10 @@ public class ReinesIntension {
  
         
     // Affichage de l'ensemble des caractéristiques de résolution
-    System.out.println("\n\n*** Bilan ***");        
-    model.getSolver().printStatistics();
+    if(Trace.actif(Trace.Niveau.BILAN)) {
+      System.out.println("\n\n*** Bilan ***");
+      model.getSolver().printStatistics();
+    }
 	}
 }
 }
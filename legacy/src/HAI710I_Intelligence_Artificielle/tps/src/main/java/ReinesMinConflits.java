@@ -0,0 +1,245 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import org.chocosolver.util.tools.TimeUtils;
+
+/**
+ * Recherche locale min-conflicts pour les n reines, jusqu'à des millions de
+ * reines (une par ligne, col[r] sa colonne).
+ *
+ * Les colonnes restent une permutation : un mouvement échange les colonnes de
+ * deux lignes, si bien que seuls les conflits de diagonales sont à réparer
+ * (Sosic et Gu).
+ * - compteurs de reines par diagonale dans des tableaux d'int : le nombre
+ *   d'attaques d'une case se lit en O(1) et un échange se répercute en O(1) ;
+ * - placement initial glouton : chaque ligne prend, parmi quelques colonnes
+ *   encore libres tirées au hasard, une dont les diagonales sont libres ; il ne
+ *   reste en général que quelques centaines de reines en conflit ;
+ * - réparation : une reine en conflit tirée au hasard est échangée avec la
+ *   ligne, parmi ECHANTILLON tirées au hasard, qui diminue le plus les attaques
+ *   (on s'arrête à la première qui les diminue) ; une ligne déplacée est taboue
+ *   pendant TABU mouvements, sauf si l'échange diminue les attaques, et avec la
+ *   probabilité marche l'échange se fait avec une ligne au hasard ;
+ * - redémarrage par un nouveau placement glouton si le nombre d'attaques n'a
+ *   pas diminué depuis longtemps.
+ *
+ * Les reines en conflit sont dans une liste de candidates vérifiée à la
+ * lecture ; elle est reconstruite par un parcours complet si elle se vide alors
+ * qu'il reste des attaques.
+ *
+ * usage : ReinesMinConflits [n...] [-graine 1] [-marche 0.02] [-limite 60s]
+ */
+public class ReinesMinConflits {
+
+	static final int TABU = 10;
+	static final int ECHANTILLON = 32;
+	static final int ESSAIS_GLOUTONS = 32;
+
+	final int n;
+	final int[] col;
+	private final int[] parDiag1, parDiag2;	// diagonales r+c et r-c+n-1
+	// lignes peut-être en conflit
+	private final int[] candidates;
+	private final boolean[] dansCandidates;
+	private int nbCandidates;
+	private final long[] tabuFin;
+	private final SplittableRandom hasard;
+	private final double marche;
+	long attaques;			// paires de reines qui se prennent
+	long attaquesInitiales;	// après le premier placement glouton
+	long mouvements, redemarrages;
+
+	ReinesMinConflits(int n, long graine, double marche) {
+		this.n = n;
+		this.marche = marche;
+		hasard = new SplittableRandom(graine);
+		col = new int[n];
+		parDiag1 = new int[2*n-1];
+		parDiag2 = new int[2*n-1];
+		candidates = new int[n];
+		dansCandidates = new boolean[n];
+		tabuFin = new long[n];
+	}
+
+	/** Les reines autres que r sur les diagonales de r. */
+	private int conflits(int r) {
+		int c = col[r];
+		return parDiag1[r+c] + parDiag2[r-c+n-1] - 2;
+	}
+
+	private void poser(int r, int c) {
+		col[r] = c;
+		attaques += parDiag1[r+c]++ + parDiag2[r-c+n-1]++;
+	}
+
+	private void enlever(int r) {
+		int c = col[r];
+		attaques -= --parDiag1[r+c] + --parDiag2[r-c+n-1];
+	}
+
+	private void echanger(int r, int s) {
+		int cr = col[r], cs = col[s];
+		enlever(r);
+		enlever(s);
+		poser(r, cs);
+		poser(s, cr);
+	}
+
+	private void ajouterCandidate(int r) {
+		if(!dansCandidates[r]) {
+			dansCandidates[r] = true;
+			candidates[nbCandidates++] = r;
+		}
+	}
+
+	/**
+	 * Placement glouton : les colonnes col[r..n-1] sont celles qui restent ; la
+	 * ligne r en essaie quelques-unes au hasard et garde la première dont les
+	 * diagonales sont libres (ou la moins attaquée).
+	 */
+	private void placer() {
+		Arrays.fill(parDiag1, 0);
+		Arrays.fill(parDiag2, 0);
+		Arrays.fill(tabuFin, 0);
+		attaques = 0;
+		for(int c=0;c<n;c++)
+			col[c] = c;
+		for(int r=0;r<n;r++) {
+			int meilleure = r, min = Integer.MAX_VALUE;
+			for(int essai=0; essai<ESSAIS_GLOUTONS && min > 0; essai++) {
+				int j = r + hasard.nextInt(n - r);
+				int c = col[j];
+				int nb = parDiag1[r+c] + parDiag2[r-c+n-1];
+				if(nb < min) {
+					min = nb;
+					meilleure = j;
+				}
+			}
+			int c = col[meilleure];
+			col[meilleure] = col[r];
+			poser(r, c);
+		}
+		reconstruireCandidates();
+	}
+
+	private void reconstruireCandidates() {
+		for(int i=0;i<nbCandidates;i++)
+			dansCandidates[candidates[i]] = false;
+		nbCandidates = 0;
+		for(int r=0;r<n;r++)
+			if(conflits(r) > 0)
+				ajouterCandidate(r);
+	}
+
+	/** La ligne avec laquelle échanger r, ou -1 si toutes celles essayées sont taboues. */
+	private int choisirEchange(int r) {
+		long avant = attaques, min = Long.MAX_VALUE;
+		int meilleure = -1, egalites = 0;
+		for(int i=0;i<ECHANTILLON && min >= 0;i++) {
+			int s = hasard.nextInt(n);
+			if(s == r)
+				continue;
+			echanger(r, s);
+			long delta = attaques - avant;
+			echanger(r, s);
+			if(delta >= 0 && tabuFin[s] > mouvements)
+				continue;
+			if(delta < min) {
+				min = delta;
+				meilleure = s;
+				egalites = 1;
+			} else if(delta == min && hasard.nextInt(++egalites) == 0)
+				meilleure = s;
+		}
+		return meilleure;
+	}
+
+	/** Cherche une solution jusqu'à echeance (System.nanoTime()) ; faux à l'échéance. */
+	boolean chercher(long echeance) {
+		placer();
+		attaquesInitiales = attaques;
+		long meilleur = attaques, depuis = 0;
+		long patience = Math.max(10_000, 2L*n);
+		while(attaques > 0) {
+			if((mouvements & 0x3FF) == 0 && System.nanoTime() > echeance)
+				return false;
+			if(nbCandidates == 0) {
+				reconstruireCandidates();
+				continue;
+			}
+			int i = hasard.nextInt(nbCandidates);
+			int r = candidates[i];
+			if(conflits(r) == 0) {
+				dansCandidates[r] = false;
+				candidates[i] = candidates[--nbCandidates];
+				continue;
+			}
+			int s = hasard.nextDouble() < marche ? hasard.nextInt(n) : choisirEchange(r);
+			if(s < 0 || s == r) {
+				mouvements++;
+				continue;
+			}
+			echanger(r, s);
+			tabuFin[r] = tabuFin[s] = mouvements + TABU;
+			// s peut être arrivée sur une diagonale occupée
+			ajouterCandidate(s);
+			mouvements++;
+			if(attaques < meilleur) {
+				meilleur = attaques;
+				depuis = 0;
+			} else if(++depuis > patience) {
+				redemarrages++;
+				placer();
+				meilleur = attaques;
+				depuis = 0;
+			}
+		}
+		return true;
+	}
+
+	public static void main(String[] args) {
+		args = Trace.options(args);
+		long graine = 1;
+		double marche = 0.02;
+		String limite = "60s";
+		List<Integer> tailles = new ArrayList<>();
+		for(int a=0;a<args.length;a++) {
+			if(args[a].equals("-graine"))
+				graine = Long.parseLong(args[++a]);
+			else if(args[a].equals("-marche"))
+				marche = Double.parseDouble(args[++a]);
+			else if(args[a].equals("-limite"))
+				limite = args[++a];
+			else
+				tailles.add(Integer.parseInt(args[a]));
+		}
+		if(tailles.isEmpty())
+			for(int n : new int[]{8, 1000, 100_000, 1_000_000})
+				tailles.add(n);
+		long limiteMs = TimeUtils.convertInMilliseconds(limite);
+
+		Trace.afficher(Trace.Niveau.BILAN, String.format("%10s %12s %14s %12s %12s  %s",
+				"n", "ms", "attaques init", "mouvements", "redemarrages", "statut"));
+		for(int n : tailles) {
+			if(n == 2 || n == 3) {
+				Trace.afficher(Trace.Niveau.BILAN, String.format("%10d %12s %14s %12s %12s  %s", n, "-", "-", "-", "-", "pas de solution"));
+				continue;
+			}
+			long t0 = System.nanoTime();
+			ReinesMinConflits recherche = new ReinesMinConflits(n, graine, marche);
+			boolean trouve = recherche.chercher(t0 + limiteMs * 1_000_000L);
+			long ms = (System.nanoTime() - t0) / 1_000_000;
+			String statut = "limite atteinte";
+			if(trouve) {
+				int colonnes[] = new int[n];
+				for(int r=0;r<n;r++)
+					colonnes[r] = recherche.col[r] + 1;
+				statut = ReinesGrandes.verifier(colonnes) ? "solution vérifiée" : "SOLUTION FAUSSE";
+			}
+			Trace.afficher(Trace.Niveau.BILAN, String.format("%10d %12d %14d %12d %12d  %s", n, ms, recherche.attaquesInitiales,
+					recherche.mouvements, recherche.redemarrages, statut));
+		}
+	}
+}
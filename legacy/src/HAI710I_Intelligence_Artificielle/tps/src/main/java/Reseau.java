@@ -0,0 +1,69 @@
+import org.chocosolver.solver.Model;
+import org.chocosolver.solver.constraints.Constraint;
+import org.chocosolver.solver.constraints.extension.Tuples;
+import org.chocosolver.solver.variables.IntVar;
+
+/**
+ * Réseau de contraintes binaires tel qu'il est décrit dans les fichiers bench
+ * (format de urbcsp.c), stocké uniquement dans des tableaux d'entiers primitifs.
+ */
+public class Reseau {
+
+	final int nbVariables;		// le nombre de variables
+	final int tailleDom;		// la valeur max des domaines
+	final int nbContraintes;	// le nombre de contraintes binaires
+	final int[] x;				// x[k], y[k] : portée de la contrainte k
+	final int[] y;
+	final int[] debut;			// les tuples de la contrainte k sont les indices debut[k] .. debut[k+1]-1
+	final int[] tuples;			// le tuple t est le couple (tuples[2*t], tuples[2*t+1])
+	CacheTuples tuplesPartages;	// si non null, les relations identiques partagent le même Tuples
+	boolean tablesBitset;		// PropTableBinaire au lieu de model.table(...)
+
+	Reseau(int nbVariables, int tailleDom, int nbContraintes, int[] x, int[] y, int[] debut, int[] tuples) {
+		this.nbVariables = nbVariables;
+		this.tailleDom = tailleDom;
+		this.nbContraintes = nbContraintes;
+		this.x = x;
+		this.y = y;
+		this.debut = debut;
+		this.tuples = tuples;
+	}
+
+	public int nbTuples(int k) {
+		return debut[k+1] - debut[k];
+	}
+
+	/** Les tuples autorisés de la contrainte k, pris dans le cache s'il y en a un. */
+	Tuples relation(int k) {
+		if(tuplesPartages != null)
+			return tuplesPartages.obtenir(tuples, debut[k], debut[k+1], true);
+		int t[][] = new int[nbTuples(k)][];
+		for(int i=0;i<t.length;i++) {
+			int p = 2*(debut[k]+i);
+			t[i] = new int[]{tuples[p], tuples[p+1]};
+		}
+		return new Tuples(t,true);
+	}
+
+	/**
+	 * Construit le même modèle Choco que Expe.lireReseau : une table de tuples
+	 * autorisés par contrainte (ou un PropTableBinaire si tablesBitset).
+	 */
+	public Model construireModele() {
+		Model model = new Model("Expe");
+		IntVar []var = model.intVarArray("x",nbVariables,0,tailleDom-1);
+		posterContraintes(model, var);
+		return model;
+	}
+
+	/** Poste les contraintes du réseau sur des variables déjà créées (voir GabaritModele). */
+	void posterContraintes(Model model, IntVar[] var) {
+		for(int k=0;k<nbContraintes;k++) {
+			IntVar portee[] = new IntVar[]{var[x[k]],var[y[k]]};
+			if(tablesBitset)
+				new Constraint("TableBinaire", new PropTableBinaire(portee[0], portee[1], relation(k))).post();
+			else
+				model.table(portee,relation(k)).post();
+		}
+	}
+}
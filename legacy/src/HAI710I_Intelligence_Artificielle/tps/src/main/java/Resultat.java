@@ -0,0 +1,27 @@
+/**
+ * Résultat de la résolution d'un réseau d'un fichier bench.
+ */
+public class Resultat {
+
+	enum Statut { SATISFIABLE, INSATISFIABLE, INCONNU }
+
+	final String fichier;
+	final int numero;			// numéro du réseau dans le fichier, à partir de 1
+	Statut statut = Statut.INCONNU;
+	long tempsLecture;			// en nanosecondes
+	long octets;				// taille du réseau dans le fichier
+	long tempsConstruction;		// en nanosecondes, construction du modèle ou des structures du moteur
+	long tempsResolution;		// en nanosecondes, sans la construction
+	long noeuds;
+	long retours;				// retours arrière
+	long echecs;
+	long octetsAlloues;			// alloués par les threads de construction et de résolution de ce réseau (0 si repris du cache)
+	String strategie;			// la stratégie utilisée (ou gagnante pour un portfolio)
+	int[] solution;				// valeur de chaque variable si SATISFIABLE
+	boolean depuisCache;		// repris du CacheResultats au lieu d'être résolu
+
+	Resultat(String fichier, int numero) {
+		this.fichier = fichier;
+		this.numero = numero;
+	}
+}
@@ -0,0 +1,35 @@
+import java.io.Closeable;
+import java.io.IOException;
+
+import org.chocosolver.solver.Model;
+
+/**
+ * Accès direct aux réseaux d'un fichier bench, quel que soit son format.
+ * Les réseaux sont numérotés à partir de 0 ; lire(i) peut être appelé
+ * depuis plusieurs threads à la fois.
+ */
+public interface SourceReseaux extends Closeable {
+
+	int nbReseaux();
+
+	Reseau lire(int i) throws IOException;
+
+	/** Taille en octets du réseau i dans le fichier. */
+	long octets(int i);
+
+	default Model construireModele(int i) throws IOException {
+		return lire(i).construireModele();
+	}
+
+	/**
+	 * Ouvre un fichier .bin (FormatBinaire), un fichier texte via son index, ou
+	 * un générateur "urbcsp:N,D,C,T,I[,S]" (GenerateurURBCSP) qui ne lit aucun fichier.
+	 */
+	static SourceReseaux ouvrir(String nomFichier) throws IOException {
+		if(nomFichier.startsWith(GenerateurURBCSP.PREFIXE))
+			return GenerateurURBCSP.lire(nomFichier);
+		if(nomFichier.endsWith(".bin"))
+			return new LecteurBinaire(nomFichier);
+		return IndexReseaux.ouvrir(nomFichier);
+	}
+}
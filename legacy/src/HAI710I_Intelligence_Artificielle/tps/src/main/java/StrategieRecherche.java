@@ -0,0 +1,141 @@
+import org.chocosolver.solver.Model;
+import org.chocosolver.solver.Solver;
+import org.chocosolver.solver.search.limits.FailCounter;
+import org.chocosolver.solver.search.loop.monitors.NogoodFromRestarts;
+import org.chocosolver.solver.search.strategy.Search;
+import org.chocosolver.solver.search.strategy.selectors.values.IntDomainMin;
+import org.chocosolver.solver.search.strategy.selectors.variables.ImpactBased;
+import org.chocosolver.solver.variables.IntVar;
+
+/**
+ * Configuration de la recherche du solveur Choco, désignée par un nom de la
+ * forme heuristique[+redémarrages][+nogoods] :
+ *
+ * heuristiques
+ *   defaut        la stratégie par défaut de getSolver()
+ *   domwdeg       dom/wdeg
+ *   activite      recherche basée sur l'activité
+ *   impact        recherche basée sur l'impact
+ *   chs           conflict history search (HeuristiqueCHS), plus petite valeur
+ *   mindom        plus petit domaine, égalités dans l'ordre des variables, plus petite valeur
+ *   aleatoire-s   variable et valeur au hasard (graine s) ; redémarrages de Luby par défaut
+ * redémarrages (échelle en nombre d'échecs)
+ *   luby[-e]              suite de Luby, échelle e (100 par défaut)
+ *   geometrique[-e[-f]]   échelle e (100) multipliée par f (1.5) à chaque redémarrage
+ * nogoods
+ *   nogoods       enregistre la branche courante sous forme de nogoods à chaque redémarrage
+ *
+ * Par exemple : domwdeg+luby, chs+geometrique-50-1.2+nogoods.
+ */
+public class StrategieRecherche {
+
+	final String nom;
+	private final String heuristique;
+	private final long graine;
+	private final String redemarrages;		// null, "luby" ou "geometrique"
+	private final long echelle;
+	private final double facteur;
+	private final boolean nogoods;
+
+	private StrategieRecherche(String nom, String heuristique, long graine, String redemarrages, long echelle, double facteur, boolean nogoods) {
+		this.nom = nom;
+		this.heuristique = heuristique;
+		this.graine = graine;
+		this.redemarrages = redemarrages;
+		this.echelle = echelle;
+		this.facteur = facteur;
+		this.nogoods = nogoods;
+	}
+
+	public static StrategieRecherche lire(String nom) {
+		String options[] = nom.split("\\+");
+		String parties[] = options[0].split("-", 2);
+		long graine = 0;
+		switch(parties[0]) {
+			case "defaut" :
+			case "domwdeg" :
+			case "activite" :
+			case "impact" :
+			case "chs" :
+			case "mindom" :
+				break;
+			case "aleatoire" :
+				graine = parties.length > 1 ? Long.parseLong(parties[1]) : 0;
+				break;
+			default :
+				throw new IllegalArgumentException("Stratégie inconnue : "+nom);
+		}
+		String redemarrages = parties[0].equals("aleatoire") ? "luby" : null;
+		long echelle = 100;
+		double facteur = 1.5;
+		boolean nogoods = false;
+		for(int i=1;i<options.length;i++) {
+			String param[] = options[i].split("-");
+			switch(param[0]) {
+				case "luby" :
+				case "geometrique" :
+					redemarrages = param[0];
+					if(param.length > 1)
+						echelle = Long.parseLong(param[1]);
+					if(param.length > 2)
+						facteur = Double.parseDouble(param[2]);
+					break;
+				case "nogoods" :
+					nogoods = true;
+					break;
+				default :
+					throw new IllegalArgumentException("Option inconnue dans la stratégie "+nom+" : "+options[i]);
+			}
+		}
+		if(nogoods && redemarrages == null)
+			throw new IllegalArgumentException("Stratégie "+nom+" : les nogoods demandent des redémarrages (+luby ou +geometrique)");
+		return new StrategieRecherche(nom, parties[0], graine, redemarrages, echelle, facteur, nogoods);
+	}
+
+	/** La même stratégie avec la graine décalée de decalage ; null si elle n'a pas de part aléatoire. */
+	StrategieRecherche varier(long decalage) {
+		if(!heuristique.equals("aleatoire"))
+			return null;
+		int plus = nom.indexOf('+');
+		return lire("aleatoire-"+(graine + decalage)+(plus < 0 ? "" : nom.substring(plus)));
+	}
+
+	public void appliquer(Model model) {
+		Solver solver = model.getSolver();
+		IntVar vars[] = model.retrieveIntVars(true);
+		switch(heuristique) {
+			case "domwdeg" :
+				solver.setSearch(Search.domOverWDegSearch(vars));
+				break;
+			case "activite" :
+				solver.setSearch(Search.activityBasedSearch(vars));
+				break;
+			case "impact" :
+				solver.setSearch(new ImpactBased(vars, false));
+				break;
+			case "chs" :
+				HeuristiqueCHS chs = new HeuristiqueCHS();
+				solver.plugMonitor(chs);
+				solver.setSearch(Search.intVarSearch(chs, new IntDomainMin(), vars));
+				break;
+			case "mindom" :
+				solver.setSearch(Search.minDomLBSearch(vars));
+				break;
+			case "aleatoire" :
+				solver.setSearch(Search.randomSearch(vars, graine));
+				break;
+			default :
+		}
+		if("luby".equals(redemarrages))
+			solver.setLubyRestart(echelle, new FailCounter(model, 0), Integer.MAX_VALUE);
+		else if("geometrique".equals(redemarrages))
+			solver.setGeometricalRestart(echelle, facteur, new FailCounter(model, 0), Integer.MAX_VALUE);
+		if(nogoods)
+			solver.plugMonitor(new NogoodFromRestarts(model));
+	}
+
+	@Override
+	public String toString() {
+		return nom;
+	}
+}
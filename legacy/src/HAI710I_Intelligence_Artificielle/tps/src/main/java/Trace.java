@@ -0,0 +1,87 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import org.chocosolver.solver.Model;
+import org.chocosolver.solver.variables.IntVar;
+
+/**
+ * Messages de la console, avec un niveau de verbosité :
+ *
+ *   silence    rien
+ *   bilan      les bilans (par fichier, par passage, statistiques du solveur)
+ *   instance   une ligne par réseau résolu, les solutions (par défaut)
+ *   modele     en plus, le modèle complet de chaque réseau
+ *
+ * Le message est donné par un Supplier, appelé seulement s'il est affiché :
+ * un modèle n'est converti en chaîne que si on le lit. Les messages propres à
+ * un réseau peuvent être échantillonnés : avec -echantillon N on n'affiche que
+ * les réseaux 1, N+1, 2N+1...
+ */
+public final class Trace {
+
+	enum Niveau { SILENCE, BILAN, INSTANCE, MODELE }
+
+	private static volatile Niveau niveau = Niveau.INSTANCE;
+	private static volatile int echantillon = 1;
+
+	private Trace() {
+	}
+
+	/**
+	 * Retire de args les options -v niveau (nom ou numéro 0..3) et -echantillon N,
+	 * les applique et rend les autres arguments.
+	 */
+	static String[] options(String[] args) {
+		List<String> autres = new ArrayList<>();
+		for(int a=0;a<args.length;a++) {
+			if(args[a].equals("-v"))
+				niveau = lireNiveau(args[++a]);
+			else if(args[a].equals("-echantillon"))
+				echantillon = Math.max(1, Integer.parseInt(args[++a]));
+			else
+				autres.add(args[a]);
+		}
+		return autres.toArray(new String[0]);
+	}
+
+	private static Niveau lireNiveau(String nom) {
+		Niveau niveaux[] = Niveau.values();
+		if(nom.matches("\\d+"))
+			return niveaux[Math.min(Integer.parseInt(nom), niveaux.length-1)];
+		return Niveau.valueOf(nom.toUpperCase());
+	}
+
+	static boolean actif(Niveau n) {
+		return n != Niveau.SILENCE && n.compareTo(niveau) <= 0;
+	}
+
+	static void afficher(Niveau n, String message) {
+		if(actif(n))
+			System.out.println(message);
+	}
+
+	static void afficher(Niveau n, Supplier<String> message) {
+		if(actif(n))
+			System.out.println(message.get());
+	}
+
+	/** Message sur le réseau numero (à partir de 1), soumis à l'échantillonnage. */
+	static void instance(Niveau n, int numero, Supplier<String> message) {
+		if(actif(n) && (numero-1) % echantillon == 0)
+			System.out.println(message.get());
+	}
+
+	/** Les valeurs des variables d'un modèle résolu (sans les constantes), sur une ligne. */
+	static String solution(Model model) {
+		return solution(model.retrieveIntVars(true));
+	}
+
+	static String solution(IntVar[] vars) {
+		StringBuilder b = new StringBuilder();
+		for(IntVar v : vars)
+			if(!v.isAConstant())
+				b.append(b.length() == 0 ? "" : " ").append(v.getName()).append('=').append(v.getValue());
+		return b.toString();
+	}
+}
@@ -5,7 +5,8 @@ import org.chocosolver.solver.constraints.extension.Tuples;
 
 public class ZebreExtension {
 
-	public static void main(String[] args) {
+	/** Le modèle du problème du zèbre, sans résolution. */
+	public static Model construireModele() {
 		
 		// Création du modele
 		Model model = new Model("Zebre");
@@ -191,16 +192,22 @@ public class ZebreExtension {
     int [][] tc15 = new int[][] {{1,2},{2,1}, {2, 3}, {3, 2}, {3, 4}, {4, 3}, {4, 5}, {5, 4}};
     Tuples ta15 = new Tuples(tc15,true);
     model.table(new IntVar[]{nor,blu}, ta15).post();
-    
-    // Affichage du réseau de contraintes créé
-    System.out.println("*** Réseau Initial ***");
-    System.out.println(model);
+
+    return model;
+	}
+
+	public static void main(String[] args) {
+		// -v silence|bilan|instance|modele : voir Trace
+		Trace.options(args);
+		Model model = construireModele();
+		
+    // Affichage du réseau de contraintes créé (rendu seulement en verbosité modele)
+    Trace.afficher(Trace.Niveau.MODELE, () -> "*** Réseau Initial ***\n"+model);
     
 
     // Calcul de la première solution
     if(model.getSolver().solve()) {
-      System.out.println("\n\n*** Première solution ***");        
-      System.out.println(model);
+      Trace.afficher(Trace.Niveau.INSTANCE, () -> "\n\n*** Première solution ***\n"+Trace.solution(model));
     }
 
         
@@ -214,7 +221,9 @@ public class ZebreExtension {
  
         
     // Affichage de l'ensemble des caractéristiques de résolution
-    System.out.println("\n\n*** Bilan ***");        
-    model.getSolver().printStatistics();
+    if(Trace.actif(Trace.Niveau.BILAN)) {
+      System.out.println("\n\n*** Bilan ***");
+      model.getSolver().printStatistics();
+    }
 	}
 }
@@ -4,7 +4,8 @@ import org.chocosolver.solver.variables.IntVar;
 
 public class ZebreIntension {
 
-	public static void main(String[] args) {
+	/** Le modèle du problème du zèbre, sans résolution. */
+	public static Model construireModele() {
 		
 		// Création du modele
 		Model model = new Model("Zebre");
@@ -125,15 +126,21 @@ public class ZebreIntension {
      */
     model.distance(nor, blu, "=", 1).post();
 
-    // Affichage du réseau de contraintes créé
-    System.out.println("*** Réseau Initial ***");
-    System.out.println(model);
+    return model;
+	}
+
+	public static void main(String[] args) {
+		// -v silence|bilan|instance|modele : voir Trace
+		Trace.options(args);
+		Model model = construireModele();
+		
+    // Affichage du réseau de contraintes créé (rendu seulement en verbosité modele)
+    Trace.afficher(Trace.Niveau.MODELE, () -> "*** Réseau Initial ***\n"+model);
     
 
     // Calcul de la première solution
     if(model.getSolver().solve()) {
-      System.out.println("\n\n*** Première solution ***");        
-      System.out.println(model);
+      Trace.afficher(Trace.Niveau.INSTANCE, () -> "\n\n*** Première solution ***\n"+Trace.solution(model));
     }
 
         
@@ -147,7 +154,9 @@ public class ZebreIntension {
  
         
     // Affichage de l'ensemble des caractéristiques de résolution
-    System.out.println("\n\n*** Bilan ***");        
-    model.getSolver().printStatistics();
+    if(Trace.actif(Trace.Niveau.BILAN)) {
+      System.out.println("\n\n*** Bilan ***");
+      model.getSolver().printStatistics();
+    }
 	}
 }